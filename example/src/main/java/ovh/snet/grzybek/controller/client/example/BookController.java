@@ -0,0 +1,41 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+@RestController
+@RequestMapping(value = "/books", produces = APPLICATION_JSON_VALUE)
+class BookController {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    BookController(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Loads the author of every book with a separate query (N+1).
+     */
+    @GetMapping
+    List<BookResponse> books() {
+        return jdbcTemplate.query("SELECT title, author_id FROM book ORDER BY id",
+                (rs, rowNum) -> new BookResponse(rs.getString("title"), authorName(rs.getLong("author_id"))));
+    }
+
+    @GetMapping("/joined")
+    List<BookResponse> booksJoined() {
+        return jdbcTemplate.query(
+                "SELECT b.title, a.name FROM book b JOIN author a ON a.id = b.author_id ORDER BY b.id",
+                (rs, rowNum) -> new BookResponse(rs.getString("title"), rs.getString("name")));
+    }
+
+    private String authorName(long authorId) {
+        return jdbcTemplate.queryForObject("SELECT name FROM author WHERE id = ?", String.class, authorId);
+    }
+}
@@ -0,0 +1,3 @@
+package ovh.snet.grzybek.controller.client.example;
+
+record BookResponse(String title, String author) {}
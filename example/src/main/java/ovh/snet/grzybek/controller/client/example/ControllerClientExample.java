@@ -2,8 +2,10 @@ package ovh.snet.grzybek.controller.client.example;
 
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.data.web.config.EnableSpringDataWebSupport;
 
 @SpringBootApplication
+@EnableSpringDataWebSupport
 public class ControllerClientExample {
 
   public static void main(String[] args) {
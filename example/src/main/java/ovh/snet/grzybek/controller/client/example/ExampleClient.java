@@ -0,0 +1,52 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * HTTP interface for {@link ExampleController}, as it would be used by other services.
+ */
+@HttpExchange("/example")
+public interface ExampleClient {
+
+    @GetExchange
+    ExampleResponse example();
+
+    @PostExchange("/body")
+    ExampleResponse body(@RequestBody ExampleRequest request);
+
+    @PostExchange(url = "/vendor", contentType = "application/vnd.example+json", accept = "application/json")
+    ExampleResponse vendor(@RequestBody ExampleRequest request);
+
+    @GetExchange("/param")
+    ExampleResponse param(@RequestParam(required = false) String message);
+
+    @GetExchange("/path/{message}")
+    ResponseEntity<ExampleResponse> path(@PathVariable String message);
+
+    @GetExchange("/list")
+    List<ExampleResponse> list();
+
+    @GetExchange("/report")
+    InputStream reportStream(@RequestParam int size);
+
+    @GetExchange("/report")
+    Resource reportResource(@RequestParam int size);
+
+    @GetExchange("/report")
+    ByteArrayResource reportBytes(@RequestParam int size);
+
+    @GetExchange("/report")
+    Path reportFile(@RequestParam int size);
+}
@@ -1,14 +1,18 @@
 package ovh.snet.grzybek.controller.client.example;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 
 @RestController
 @RequestMapping(value = "/example", produces = APPLICATION_JSON_VALUE)
@@ -24,6 +28,17 @@ class ExampleController {
         return new ExampleResponse("Received: " + request.message());
     }
 
+    @PostMapping(value = "/vendor", consumes = "application/vnd.example+json")
+    public ExampleResponse vendorExample(@RequestBody ExampleRequest request,
+                                         @RequestHeader(HttpHeaders.ACCEPT) String accept) {
+        return new ExampleResponse("Received: " + request.message() + " accepting " + accept);
+    }
+
+    @PostMapping("/batch")
+    public ExampleResponse batchExample(@RequestBody List<ExampleRequest> requests) {
+        return new ExampleResponse("Received " + requests.size() + " messages");
+    }
+
     @GetMapping("/param")
     public ExampleResponse paramExample(@RequestParam(required = false) String message) {
         return new ExampleResponse("Received: " + message);
@@ -41,6 +56,21 @@ class ExampleController {
         return new ExampleResponse(message);
     }
 
+    @GetMapping("/requestHeader")
+    ExampleResponse requestHeaderExample(@RequestHeader("X-Example-Header") String exampleHeader) {
+        return new ExampleResponse("Header value: " + exampleHeader);
+    }
+
+    @GetMapping("/cookie")
+    ExampleResponse cookieExample(@CookieValue("session") String session) {
+        return new ExampleResponse("Session: " + session);
+    }
+
+    @GetMapping("/search")
+    ExampleResponse modelAttributeExample(@ModelAttribute ExampleRequest request) {
+        return new ExampleResponse("Searched: " + request.message());
+    }
+
     @GetMapping("/list")
     List<ExampleResponse> listExample() {
         return List.of(new ExampleResponse("a"), new ExampleResponse("b"));
@@ -56,6 +86,11 @@ class ExampleController {
         return ResponseEntity.internalServerError().build();
     }
 
+    @GetMapping("/unhandled")
+    ExampleResponse unhandledException() {
+        throw new IllegalStateException("Not handled by any exception handler");
+    }
+
     @PostMapping("/upload")
     public ExampleResponse uploadFile(@RequestParam("file") MultipartFile file) {
         var fileName = file.getOriginalFilename();
@@ -75,6 +110,35 @@ class ExampleController {
         return "Received stream";
     }
 
+    @GetMapping(value = "/report", produces = APPLICATION_OCTET_STREAM_VALUE)
+    byte[] report(@RequestParam(defaultValue = "16") int size) {
+        var report = new byte[size];
+        for (int i = 0; i < size; i++) {
+            report[i] = (byte) i;
+        }
+        return report;
+    }
+
+    @GetMapping("/messages")
+    ExamplePage messages(@RequestParam int page, @RequestParam int size) {
+        return messagePage(page, size, false);
+    }
+
+    @GetMapping("/pagedMessages")
+    ExamplePage pagedMessages(Pageable pageable) {
+        var order = pageable.getSort().getOrderFor("message");
+        return messagePage(pageable.getPageNumber(), pageable.getPageSize(), order != null && order.isDescending());
+    }
+
+    private static ExamplePage messagePage(int page, int size, boolean descending) {
+        int total = 45;
+        var content = IntStream.range(Math.min(page * size, total), Math.min((page + 1) * size, total))
+                .map(i -> descending ? total - 1 - i : i)
+                .mapToObj(i -> new ExampleResponse("Message " + i))
+                .toList();
+        return new ExamplePage(content, page, size, (page + 1) * size >= total);
+    }
+
     @GetMapping("/listParam")
     public String getListParam(@RequestParam List<String> list) {
         return String.join(",", list);
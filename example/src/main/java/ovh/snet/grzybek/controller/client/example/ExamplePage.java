@@ -0,0 +1,5 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import java.util.List;
+
+record ExamplePage(List<ExampleResponse> content, int number, int size, boolean last) {}
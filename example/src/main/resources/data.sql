@@ -0,0 +1,9 @@
+INSERT INTO author (id, name)
+VALUES (1, 'Frank Herbert'),
+       (2, 'Ursula K. Le Guin');
+
+INSERT INTO book (id, title, author_id)
+VALUES (1, 'Dune', 1),
+       (2, 'Dune Messiah', 1),
+       (3, 'The Dispossessed', 2),
+       (4, 'The Left Hand of Darkness', 2);
@@ -0,0 +1,12 @@
+CREATE TABLE author
+(
+    id   BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE book
+(
+    id        BIGINT PRIMARY KEY,
+    title     VARCHAR(255) NOT NULL,
+    author_id BIGINT       NOT NULL REFERENCES author (id)
+);
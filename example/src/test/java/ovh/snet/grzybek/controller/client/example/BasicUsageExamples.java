@@ -116,4 +116,22 @@ class BasicUsageExamples {
         var response = exampleController.getListParam(List.of("a", "b"));
         assertThat(response).isEqualTo("a,b");
     }
+
+    @Test
+    void getWithRequestHeader() {
+        var response = exampleController.requestHeaderExample("token");
+        assertThat(response.message()).isEqualTo("Header value: token");
+    }
+
+    @Test
+    void getWithCookie() {
+        var response = exampleController.cookieExample("abc");
+        assertThat(response.message()).isEqualTo("Session: abc");
+    }
+
+    @Test
+    void getWithModelAttribute() {
+        var response = exampleController.modelAttributeExample(new ExampleRequest("books"));
+        assertThat(response.message()).isEqualTo("Searched: books");
+    }
 }
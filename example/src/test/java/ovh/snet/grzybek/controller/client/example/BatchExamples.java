@@ -0,0 +1,71 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpStatus;
+import ovh.snet.grzybek.controller.client.core.ControllerCallSpec;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * This test class demonstrates table-driven batch execution with `ControllerClientBatch`.
+ * <p>
+ * A batch executes many calls against one controller proxy, optionally in parallel, and reports
+ * all failed calls in a single assertion error instead of stopping at the first one.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchExamples {
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void executeCallsInParallel() {
+        var specs = IntStream.range(0, 100)
+                .mapToObj(i -> ControllerCallSpec.<ExampleController>of(
+                        c -> c.bodyExample(new ExampleRequest("message " + i)), HttpStatus.OK.value()))
+                .toList();
+
+        var responses = controllerClientFactory.batch(ExampleController.class)
+                .calls(specs)
+                .parallel(8)
+                .execute();
+
+        assertThat(responses).hasSize(100);
+        assertThat(((ExampleResponse) responses.get(42).response()).message()).isEqualTo("Received: message 42");
+    }
+
+    @Test
+    void reportAllFailures() {
+        var batch = controllerClientFactory.batch(ExampleController.class)
+                .call(ExampleController::exampleMethod, HttpStatus.OK.value())
+                .call(ExampleController::enumExample, HttpStatus.OK.value())
+                .call(ExampleController::enumExample, HttpStatus.OK.value());
+
+        assertThatThrownBy(batch::execute)
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("2 of 3 calls failed")
+                .hasMessageContaining("call #1")
+                .hasMessageContaining("call #2");
+    }
+
+    @Test
+    void reportUnhandledControllerExceptions() {
+        var batch = controllerClientFactory.batch(ExampleController.class)
+                .call(ExampleController::unhandledException, HttpStatus.OK.value())
+                .call(ExampleController::exampleMethod, HttpStatus.OK.value())
+                .parallel(2);
+
+        assertThatThrownBy(batch::execute)
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("1 of 2 calls failed")
+                .hasMessageContaining("call #0");
+    }
+}
@@ -0,0 +1,93 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.core.io.FileSystemResource;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import ovh.snet.grzybek.controller.client.core.annotation.AutowireControllerClient;
+
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how binary responses, such as reports, images or exports, are
+ * returned by the Controller Client.
+ * <p>
+ * Methods returning `byte[]`, `ByteBuffer`, `InputStream`, `Resource` (or a resource type such as
+ * `ByteArrayResource`) or `Path` get the raw response body without decoding it as text.
+ * <p>
+ * Key Concepts:
+ * - `Path` return types always write the body to a temporary file, which the test deletes.
+ * - `spillBodiesLargerThan` makes `InputStream` and `Resource` return types serve bodies above
+ * the threshold from a temporary file as well, so the returned values do not keep large exports in
+ * memory. MockMvc still buffers the whole body while the call runs. Spilled streams delete their
+ * file when closed, spilled resources are deleted by the test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryResponseExamples {
+
+    @AutowireControllerClient
+    private ExampleController exampleController;
+
+    @AutowireControllerClient
+    private ExampleClient exampleClient;
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void returnByteArray() {
+        var report = exampleController.report(4);
+        assertThat(report).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void returnInputStream() throws Exception {
+        try (var report = exampleClient.reportStream(4)) {
+            assertThat(report.readAllBytes()).containsExactly(0, 1, 2, 3);
+        }
+    }
+
+    @Test
+    void returnResourceType() {
+        var report = exampleClient.reportBytes(4);
+        assertThat(report.getByteArray()).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void returnPath() throws Exception {
+        var report = exampleClient.reportFile(1024);
+        assertThat(Files.size(report)).isEqualTo(1024);
+        Files.delete(report);
+    }
+
+    @Test
+    void spillLargeBodiesToFile() throws Exception {
+        var client = controllerClientFactory.builder(ExampleClient.class)
+                .spillBodiesLargerThan(512)
+                .build();
+
+        var small = client.reportResource(16);
+        var large = client.reportResource(1024);
+
+        assertThat(small).isNotInstanceOf(FileSystemResource.class);
+        assertThat(large).isInstanceOf(FileSystemResource.class);
+        assertThat(large.contentLength()).isEqualTo(1024);
+        Files.delete(large.getFile().toPath());
+    }
+
+    @Test
+    void spillLargeStreamsToFile() throws Exception {
+        var client = controllerClientFactory.builder(ExampleClient.class)
+                .spillBodiesLargerThan(512)
+                .build();
+
+        try (var report = client.reportStream(1024)) {
+            assertThat(report.readAllBytes()).hasSize(1024);
+        }
+    }
+}
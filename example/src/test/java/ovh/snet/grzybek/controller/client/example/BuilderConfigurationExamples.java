@@ -1,11 +1,19 @@
 package ovh.snet.grzybek.controller.client.example;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
 import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import ovh.snet.grzybek.controller.client.core.ControllerResponse;
+import ovh.snet.grzybek.controller.client.core.ResponseMapping;
+import ovh.snet.grzybek.controller.client.core.SqlStatistics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -66,4 +74,137 @@ class BuilderConfigurationExamples {
     var response = client.exampleMethod();
     assertThat(response.message()).isEqualTo("Hello world!");
   }
+
+  @Test
+  void mapResponseLazily() {
+    var builder =
+        controllerClientFactory
+            .builder(ExampleController.class)
+            .responseMapping(ResponseMapping.LAZY);
+    var client = controllerClientFactory.respondingClient(builder);
+
+    ControllerResponse<ExampleResponse> response =
+        client.executeFunction(ExampleController::exampleMethod);
+
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+    assertThat(response.response().message()).isEqualTo("Hello world!");
+  }
+
+  @Test
+  void useReturnedValueInLazyMode() {
+    var builder =
+        controllerClientFactory
+            .builder(ExampleController.class)
+            .responseMapping(ResponseMapping.LAZY);
+    var client = controllerClientFactory.respondingClient(builder);
+
+    ControllerResponse<String> response =
+        client.executeFunction(controller -> controller.exampleMethod().message());
+
+    assertThat(response.response()).isEqualTo("Hello world!");
+  }
+
+  @Test
+  void skipDiscardedBodyInLazyMode() {
+    var builder =
+        controllerClientFactory
+            .builder(ExampleController.class)
+            .responseMapping(ResponseMapping.LAZY);
+    var client = controllerClientFactory.respondingClient(builder);
+
+    ControllerResponse<Void> response = client.executeConsumer(ExampleController::exampleMethod);
+
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+    assertThat(response.response()).isNull();
+  }
+
+  @Test
+  void compareResponsesByValue() {
+    var mockResponse = new MockHttpServletResponse();
+    var first =
+        new ControllerResponse<>(
+            0, null, Map.of(), null, 200, mockResponse, "body", -1, SqlStatistics.NONE);
+    var second =
+        new ControllerResponse<>(
+            0, null, Map.of(), null, 200, mockResponse, "body", -1, SqlStatistics.NONE);
+
+    assertThat(first).isEqualTo(second).hasSameHashCodeAs(second);
+  }
+
+  @Test
+  void checkStatusOnly() {
+    var builder =
+        controllerClientFactory
+            .builder(ExampleController.class)
+            .responseMapping(ResponseMapping.STATUS_ONLY);
+    var client = controllerClientFactory.respondingClient(builder);
+
+    ControllerResponse<ExampleResponse> response =
+        client.executeFunction(ExampleController::exampleMethod);
+
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+    assertThat(response.response()).isNull();
+  }
+
+  @Test
+  void bindArgumentsWithCustomBinder() {
+    var client =
+        controllerClientFactory
+            .builder(ExampleController.class)
+            .argumentBinder(
+                parameter ->
+                    parameter.getParameterType() == HttpServletRequest.class
+                        ? (value, request) -> request.header("X-Example-Header", "bound")
+                        : null)
+            .build();
+    var response = client.headerExample(null);
+    assertThat(response.message()).isEqualTo("Header value: bound");
+  }
+
+  @Test
+  void applyStaticCustomizerOnce() {
+    var tokensMinted = new AtomicInteger();
+    var client =
+        controllerClientFactory
+            .builder(ExampleController.class)
+            .customizeRequestOnce(
+                request ->
+                    request.header("X-Example-Header", "token-" + tokensMinted.incrementAndGet()))
+            .build();
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(client.headerExample(null).message()).isEqualTo("Header value: token-1");
+    }
+    assertThat(tokensMinted).hasValue(1);
+  }
+
+  @Test
+  void overrideStaticCustomizerPerCall() {
+    var client =
+        controllerClientFactory
+            .builder(ExampleController.class)
+            .customizeRequestOnce(request -> request.header("X-Example-Header", "static"))
+            .build();
+
+    var response = client.requestHeaderExample("dynamic");
+
+    assertThat(response.message()).isEqualTo("Header value: dynamic");
+  }
+
+  @Test
+  void overrideStaticCustomizerWithDynamicCustomizer() {
+    var calls = new AtomicInteger();
+    var client =
+        controllerClientFactory
+            .builder(ExampleController.class)
+            .customizeRequestOnce(request -> request.header("X-Example-Header", "static"))
+            .customizeRequest(
+                request -> request.header("X-Example-Header", "dynamic-" + calls.incrementAndGet()))
+            .build();
+
+    // The template keeps only its own value, so every call sees just the one set for it
+    for (int i = 1; i <= 3; i++) {
+      assertThat(client.headerExample(null).message()).isEqualTo("Header value: dynamic-" + i);
+    }
+  }
 }
@@ -9,6 +9,9 @@ import ovh.snet.grzybek.controller.client.core.ControllerClientCaller;
 import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
 import ovh.snet.grzybek.controller.client.core.annotation.AutowireControllerClientCaller;
 
+import java.time.Duration;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -90,4 +93,47 @@ class CallerConfigurationExamples {
 
     assertThat(result.message()).isEqualTo("Hello world!");
   }
+
+  @Test
+  void reuseCallerForManyCalls() {
+    for (var message : List.of("a", "b", "c")) {
+      var result =
+          (ExampleResponse)
+              clientCaller
+                  .when((ExampleController c) -> c.paramExample(message))
+                  .thenStatus(HttpStatus.OK.value())
+                  .execute();
+
+      assertThat(result.message()).isEqualTo("Received: " + message);
+    }
+
+    clientCaller
+        .when(ExampleController::enumExample)
+        .thenStatus(HttpStatus.INTERNAL_SERVER_ERROR.value())
+        .execute();
+  }
+
+  @Test
+  void assertLatencyBudget() {
+    clientCaller
+        .when(ExampleController::exampleMethod)
+        .thenStatus(HttpStatus.OK.value())
+        .thenCompletesWithin(Duration.ofSeconds(5))
+        .execute();
+
+    clientCaller
+        .when(ExampleController::exampleMethod)
+        .repeat(100)
+        .thenPercentileBelow(0.99, Duration.ofSeconds(1))
+        .execute();
+  }
+
+  @Test
+  void assertAllocationBudget() {
+    clientCaller
+        .when(ExampleController::exampleMethod)
+        .warmUp(10)
+        .thenAllocatesAtMost(10 * 1024 * 1024)
+        .execute();
+  }
 }
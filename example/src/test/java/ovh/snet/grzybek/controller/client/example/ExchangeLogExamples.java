@@ -0,0 +1,63 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import ovh.snet.grzybek.controller.client.core.ExchangeLog;
+import ovh.snet.grzybek.controller.client.core.annotation.ControllerClientExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * This test class demonstrates the exchange log attached to failures.
+ * <p>
+ * Every call through a Controller Client is kept in a small per-thread ring buffer. When a status
+ * expectation such as `expectStatus` or `thenStatus` fails, the last exchanges are attached to the
+ * `AssertionError` as a suppressed exception, so the test report shows the requests that led up to
+ * the failure without printing every exchange of every passing test.
+ * <p>
+ * Key Concepts:
+ * - Only the method, URL, status and the start of the request body are copied when a call is
+ * recorded. The body of the latest response is read only when the log is attached to a failure,
+ * older exchanges show the length of theirs.
+ * - `ControllerClientExtension` clears the log before each test and attaches it to any other test
+ * failure as well.
+ * - The number of exchanges kept per thread is set with the
+ * `controller-client.exchange-log.capacity` property of the application context, `0` turns the
+ * log off for its clients.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(ControllerClientExtension.class)
+class ExchangeLogExamples {
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void attachPrecedingExchangesToFailure() {
+        var client = controllerClientFactory.create(ExampleController.class);
+        var caller = controllerClientFactory.caller(ExampleController.class);
+        client.exampleMethod();
+
+        var failure = catchThrowableOfType(AssertionError.class, () -> caller
+                .when((ExampleController controller) -> controller.pathExample("flow"))
+                .thenStatus(404)
+                .execute());
+
+        assertThat(failure.getSuppressed()).singleElement().satisfies(log -> assertThat(log.toString())
+                .contains("Last 2 controller client exchanges")
+                .contains("#1 GET /example -> 200")
+                .contains("#2 GET /example/path/flow -> 200")
+                .contains("response: {\"message\":\"Received: flow\"}"));
+    }
+
+    @Test
+    void startEveryTestWithEmptyLog() {
+        assertThat(ExchangeLog.dump()).isNull();
+    }
+}
@@ -0,0 +1,61 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how controller calls show up in JDK Flight Recorder recordings.
+ * <p>
+ * Every call through a Controller Client commits a `controllerclient.Call` event carrying the
+ * controller method, URL template, status, body sizes and how long preparing the request,
+ * `MockMvc.perform` and handling the response took. GC pauses, lock contention and allocation
+ * samples in the same recording can then be attributed to endpoint calls.
+ * <p>
+ * Key Concepts:
+ * - The event is disabled by default. The `controller-client.jfc` settings shipped with the
+ * library enable it, e.g. `./gradlew test -Pjfr` in this project.
+ * - While the event is not recorded, calls do not create any event objects.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class FlightRecorderExamples {
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void recordCallEvents() throws Exception {
+        var client = controllerClientFactory.create(ExampleController.class);
+        var file = Files.createTempFile("controller-client", ".jfr");
+
+        try (var recording = new Recording()) {
+            recording.enable("controllerclient.Call");
+            recording.start();
+            client.exampleMethod();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("controllerclient.Call"))
+                .toList();
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getString("method")).isEqualTo("exampleMethod");
+            assertThat(event.getString("httpMethod")).isEqualTo("GET");
+            assertThat(event.getInt("status")).isEqualTo(200);
+            assertThat(event.getDuration("performDuration")).isPositive();
+        });
+        Files.delete(file);
+    }
+}
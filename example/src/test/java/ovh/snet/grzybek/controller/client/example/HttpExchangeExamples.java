@@ -0,0 +1,73 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpStatus;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import ovh.snet.grzybek.controller.client.core.annotation.AutowireControllerClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how Spring HTTP interfaces can be used instead of controller classes.
+ * <p>
+ * Interfaces annotated with `@HttpExchange` describe the contract as seen by the callers of a
+ * service. The Controller Client executes their calls through MockMvc, so the same interface that
+ * production code uses to call the service can be used to test its controllers.
+ * <p>
+ * Key Concepts:
+ * - Any interface with `@HttpExchange`, `@GetExchange`, `@PostExchange` etc. methods can be
+ * passed to `ControllerClientFactory` or injected with `@AutowireControllerClient`.
+ * - Parameters are bound with the same annotations as in controllers.
+ * - Methods returning `ResponseEntity` get the status and headers of the response as well.
+ * - The `contentType` and `accept` of an exchange are sent as the Content-Type and Accept headers.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class HttpExchangeExamples {
+
+    @AutowireControllerClient
+    private ExampleClient exampleClient;
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void basicGet() {
+        var response = exampleClient.example();
+        assertThat(response.message()).isEqualTo("Hello world!");
+    }
+
+    @Test
+    void postWithBody() {
+        var response = exampleClient.body(new ExampleRequest("Test message"));
+        assertThat(response.message()).isEqualTo("Received: Test message");
+    }
+
+    @Test
+    void postWithContentTypeAndAccept() {
+        var response = exampleClient.vendor(new ExampleRequest("Test message"));
+        assertThat(response.message()).isEqualTo("Received: Test message accepting application/json");
+    }
+
+    @Test
+    void getWithParam() {
+        var response = exampleClient.param("hello");
+        assertThat(response.message()).isEqualTo("Received: hello");
+    }
+
+    @Test
+    void getResponseEntity() {
+        var response = exampleClient.path("hello");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().message()).isEqualTo("Received: hello");
+    }
+
+    @Test
+    void createFromFactory() {
+        var client = controllerClientFactory.create(ExampleClient.class);
+        assertThat(client.list()).hasSize(2);
+    }
+}
@@ -0,0 +1,85 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how to walk the pages of a paginated endpoint.
+ * <p>
+ * `paginate` returns an iterator or stream over the elements of all pages. The next page is only
+ * fetched when the elements of the current one are used up, so exports with many pages never hold
+ * more than one page in memory, and no loop over page numbers has to be written by hand.
+ * <p>
+ * Key Concepts:
+ * - The call receives the page number and size, for `Pageable` as well as `page`/`size` parameters.
+ * - `Pageable` arguments are sent as `page`, `size` and `sort` request parameters.
+ * - Walking stops at an empty page, at a page marked as the last one and at a page other than the
+ * requested one, so endpoints ignoring the page number do not loop forever.
+ * - `prefetch()` fetches the next page on a background thread while the current one is consumed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PaginationExamples {
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void streamAllPages() {
+        try (var messages = controllerClientFactory.paginate(ExampleController.class, ExampleResponse.class,
+                        (client, page, size) -> client.messages(page, size))
+                .pageSize(10)
+                .stream()) {
+            assertThat(messages.map(ExampleResponse::message))
+                    .hasSize(45)
+                    .startsWith("Message 0", "Message 1")
+                    .endsWith("Message 44");
+        }
+    }
+
+    @Test
+    void walkPageableEndpoint() {
+        try (var messages = controllerClientFactory.paginate(ExampleController.class, ExampleResponse.class,
+                        (client, page, size) -> client.pagedMessages(
+                                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "message"))))
+                .pageSize(20)
+                .stream()) {
+            assertThat(messages.map(ExampleResponse::message))
+                    .hasSize(45)
+                    .startsWith("Message 44", "Message 43")
+                    .endsWith("Message 0");
+        }
+    }
+
+    @Test
+    void stopWhenEndpointIgnoresPage() {
+        try (var messages = controllerClientFactory.paginate(ExampleController.class, ExampleResponse.class,
+                        (client, page, size) -> client.messages(0, size))
+                .pageSize(10)
+                .stream()) {
+            assertThat(messages).hasSize(10);
+        }
+    }
+
+    @Test
+    void prefetchNextPage() {
+        var messages = new ArrayList<String>();
+        try (var iterator = controllerClientFactory.paginate(ExampleController.class, ExampleResponse.class,
+                        (client, page, size) -> client.messages(page, size))
+                .pageSize(20)
+                .prefetch()
+                .iterator()) {
+            iterator.forEachRemaining(message -> messages.add(message.message()));
+        }
+        assertThat(messages).hasSize(45).doesNotHaveDuplicates();
+    }
+}
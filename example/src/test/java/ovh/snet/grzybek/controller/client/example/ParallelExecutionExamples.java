@@ -0,0 +1,91 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import ovh.snet.grzybek.controller.client.core.ControllerClientCaller;
+import ovh.snet.grzybek.controller.client.core.annotation.AutowireControllerClient;
+import ovh.snet.grzybek.controller.client.core.annotation.AutowireControllerClientCaller;
+import ovh.snet.grzybek.controller.client.core.annotation.ControllerClientExtension;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how to run controller client tests in parallel.
+ * <p>
+ * With `junit.jupiter.execution.parallel.enabled=true` (see `junit-platform.properties`), test
+ * methods of a class annotated with `@Execution(ExecutionMode.CONCURRENT)` run on several threads
+ * at once, even when they share a single test instance.
+ * <p>
+ * Key Concepts:
+ * - `ControllerClientExtension` resolves test method parameters annotated with
+ * `@AutowireControllerClient`, `@AutowireControllerClientCaller` or
+ * `@AutowireRespondingControllerClient`, giving each test invocation its own client.
+ * - Clients injected into fields can be shared as well: proxies are immutable and callers keep the
+ * call being configured per thread.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(ControllerClientExtension.class)
+@Execution(ExecutionMode.CONCURRENT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ParallelExecutionExamples {
+
+    @AutowireControllerClient
+    private ExampleController exampleController;
+
+    @AutowireControllerClientCaller
+    private ControllerClientCaller<ExampleController> sharedCaller;
+
+    @RepeatedTest(20)
+    void resolvePerInvocation(@AutowireControllerClientCaller ControllerClientCaller<ExampleController> caller) {
+        ExampleResponse response = caller
+                .when((ExampleController controller) -> controller.pathExample("parallel"))
+                .thenStatus(200)
+                .execute();
+        assertThat(response.message()).isEqualTo("Received: parallel");
+    }
+
+    @RepeatedTest(20)
+    void shareClientField() {
+        var response = exampleController.exampleMethod();
+        assertThat(response.message()).isEqualTo("Hello world!");
+    }
+
+    @Test
+    void shareCallerBetweenThreads() throws Exception {
+        int threads = 8;
+        var tasks = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < threads; i++) {
+            var message = "thread-" + i;
+            tasks.add(() -> {
+                for (int call = 0; call < 50; call++) {
+                    ExampleResponse response = sharedCaller
+                            .when((ExampleController controller) -> controller.pathExample(message))
+                            .thenStatus(200)
+                            .execute();
+                    assertThat(response.message()).isEqualTo("Received: " + message);
+                }
+                return null;
+            });
+        }
+
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how to detect endpoints whose cost grows super-linearly with the
+ * size of the payload.
+ * <p>
+ * `ControllerClientFactory.payloadScaling(...)` calls an endpoint with payloads of doubling size,
+ * created by a generator, and fits how latency and allocation grow with the size. A quadratic loop
+ * that is harmless for 10 elements but not for 10 000 shows up as a growth exponent close to 2.
+ * <p>
+ * Key Concepts:
+ * - The generator creates the `@RequestBody` or `@RequestParam` argument for a given size.
+ * - `thenNotSuperLinear` fails the test when latency or allocation grow faster than linearly,
+ * printing all measurements.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PayloadScalingExamples {
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void assertLinearAllocationOfRequestBody() {
+        var scaling = controllerClientFactory.payloadScaling(ExampleController.class,
+                        ExampleController::batchExample,
+                        size -> IntStream.range(0, size).mapToObj(i -> new ExampleRequest("message " + i)).toList())
+                .sizes(16, 4096)
+                .repeat(3)
+                .thenAllocationExponentAtMost(1.5)
+                .execute();
+
+        assertThat(scaling.points()).hasSize(9);
+    }
+
+    @Test
+    void measureRequestParamCollection() {
+        var scaling = controllerClientFactory.payloadScaling(ExampleController.class,
+                        ExampleController::getListParam,
+                        size -> IntStream.range(0, size).mapToObj(String::valueOf).toList())
+                .sizes(8, 1024)
+                .execute();
+
+        assertThat(scaling.points()).extracting(point -> point.size())
+                .containsExactly(8, 16, 32, 64, 128, 256, 512, 1024);
+    }
+}
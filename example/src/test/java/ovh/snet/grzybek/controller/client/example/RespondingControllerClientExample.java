@@ -7,6 +7,9 @@ import ovh.snet.grzybek.controller.client.core.ControllerResponse;
 import ovh.snet.grzybek.controller.client.core.RespondingControllerClient;
 import ovh.snet.grzybek.controller.client.core.annotation.AutowireRespondingControllerClient;
 
+import java.lang.management.ManagementFactory;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -27,6 +30,12 @@ class RespondingControllerClientExample {
         ControllerResponse<ExampleResponse> response = exampleController.executeFunction(ExampleController::exampleMethod);
         assertThat(response.statusCode()).isEqualTo(200);
         assertThat(response.response().message()).isEqualTo("Hello world!");
+        if (allocationMeasurementSupported()) {
+            assertThat(response.allocatedBytes()).isPositive();
+        } else {
+            assertThat(response.allocatedBytes()).isEqualTo(-1);
+        }
+        assertThat(response.headers().get("content-type")).containsExactly("application/json");
     }
 
     @Test
@@ -36,4 +45,29 @@ class RespondingControllerClientExample {
         assertThat(response.statusCode()).isEqualTo(200);
         assertThat(response.response().message()).isEqualTo("Received: Test message");
     }
+
+    @Test
+    void sharedBetweenThreads() {
+        var responses = IntStream.range(0, 50)
+                .parallel()
+                .<ControllerResponse<?>>mapToObj(i -> i % 2 == 0
+                        ? exampleController.executeFunction(ExampleController::enumExample)
+                        : exampleController.executeFunction(c -> c.paramExample(String.valueOf(i))))
+                .toList();
+
+        for (int i = 0; i < responses.size(); i++) {
+            if (i % 2 == 0) {
+                assertThat(responses.get(i).statusCode()).isEqualTo(500);
+            } else {
+                assertThat(responses.get(i).statusCode()).isEqualTo(200);
+                assertThat(((ExampleResponse) responses.get(i).response()).message()).isEqualTo("Received: " + i);
+            }
+        }
+    }
+
+    private static boolean allocationMeasurementSupported() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+                && threadMXBean.isThreadAllocatedMemorySupported()
+                && threadMXBean.isThreadAllocatedMemoryEnabled();
+    }
 }
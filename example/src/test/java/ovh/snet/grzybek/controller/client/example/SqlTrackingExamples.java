@@ -0,0 +1,53 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import ovh.snet.grzybek.controller.client.core.ControllerClientCaller;
+import ovh.snet.grzybek.controller.client.core.RespondingControllerClient;
+import ovh.snet.grzybek.controller.client.core.annotation.AutowireControllerClientCaller;
+import ovh.snet.grzybek.controller.client.core.annotation.AutowireRespondingControllerClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * This test class demonstrates SQL statement tracking.
+ * <p>
+ * With `controller-client.sql.enabled=true` every `DataSource` bean is wrapped and the JDBC
+ * statements executed during a proxied call are attributed to that call. They are exposed on
+ * `ControllerResponse.sqlStatistics()` and can be asserted with `thenMaxQueries`, which lists
+ * repeated statements to point at N+1 queries.
+ */
+@SpringBootTest(properties = "controller-client.sql.enabled=true")
+@AutoConfigureMockMvc
+class SqlTrackingExamples {
+
+    @AutowireControllerClientCaller
+    private ControllerClientCaller<BookController> bookCaller;
+
+    @AutowireRespondingControllerClient
+    private RespondingControllerClient<BookController> bookClient;
+
+    @Test
+    void countStatements() {
+        var response = bookClient.executeFunction(BookController::books);
+
+        assertThat(response.sqlStatistics().statementCount()).isEqualTo(5);
+        assertThat(response.sqlStatistics().duplicatedStatements())
+                .containsEntry("select name from author where id = ?", 4);
+    }
+
+    @Test
+    void detectNPlusOne() {
+        assertThatThrownBy(() -> bookCaller.when(BookController::books).thenMaxQueries(1).execute())
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("executed 5 SQL statements")
+                .hasMessageContaining("4x select name from author where id = ?");
+    }
+
+    @Test
+    void singleQuery() {
+        bookCaller.when(BookController::booksJoined).thenMaxQueries(1).execute();
+    }
+}
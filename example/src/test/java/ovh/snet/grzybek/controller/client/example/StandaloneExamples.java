@@ -0,0 +1,57 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import ovh.snet.grzybek.controller.client.core.ControllerClients;
+import ovh.snet.grzybek.controller.client.core.ControllerResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how to use the Controller Client without an application context.
+ * <p>
+ * `ControllerClients.standalone(...)` registers controller instances created by the test in a
+ * standalone MockMvc setup. No Spring Boot context is started, so the tests start in milliseconds,
+ * while the returned clients are the same typed proxies as in `@SpringBootTest` tests.
+ * <p>
+ * Key Concepts:
+ * - Controller dependencies are created by the test, e.g. as plain objects or mocks.
+ * - `@ControllerAdvice` instances, message converters and the `ObjectMapper` can be passed to the
+ * standalone setup.
+ * - Mappings are resolved from the controller annotations.
+ */
+class StandaloneExamples {
+
+    private final ExampleController exampleController =
+            ControllerClients.standalone(new ExampleController()).create(ExampleController.class);
+
+    @Test
+    void basicGet() {
+        var response = exampleController.exampleMethod();
+        assertThat(response.message()).isEqualTo("Hello world!");
+    }
+
+    @Test
+    void postWithBody() {
+        var response = exampleController.bodyExample(new ExampleRequest("Test message"));
+        assertThat(response.message()).isEqualTo("Received: Test message");
+    }
+
+    @Test
+    void getWithListParam() {
+        var response = exampleController.getListParam(List.of("a", "b"));
+        assertThat(response).isEqualTo("a,b");
+    }
+
+    @Test
+    void respondingClient() {
+        var client = ControllerClients.standalone(new ExampleController())
+                .respondingClient(ExampleController.class);
+
+        ControllerResponse<ExampleResponse> response = client.executeFunction(ExampleController::exampleMethod);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.response().message()).isEqualTo("Hello world!");
+    }
+}
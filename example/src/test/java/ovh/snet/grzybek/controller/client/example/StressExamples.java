@@ -0,0 +1,41 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how to measure how an endpoint scales with concurrent callers.
+ * <p>
+ * `ControllerClientFactory.stress(...)` executes the same call from 1, 2, 4 … N threads released
+ * together and reports the throughput, tail latency and scaling efficiency at every level.
+ * Contention on locks in controllers or services shows up as efficiency well below 100%.
+ * <p>
+ * Key Concepts:
+ * - `threads` sets the highest thread count, `callsPerThread` the number of calls per thread.
+ * - `thenEfficiencyAtLeast` fails the test when scaling drops below the given fraction of linear
+ * scaling, printing the whole curve.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StressExamples {
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void measureScalingCurve() {
+        var curve = controllerClientFactory.stress(ExampleController.class, ExampleController::exampleMethod)
+                .threads(4)
+                .callsPerThread(50)
+                .execute();
+
+        assertThat(curve.levels()).extracting(level -> level.threads()).containsExactly(1, 2, 4);
+        assertThat(curve.levels()).allSatisfy(level ->
+                assertThat(level.latencies().count()).isEqualTo(level.threads() * 50));
+    }
+}
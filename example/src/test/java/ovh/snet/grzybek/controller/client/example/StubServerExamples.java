@@ -0,0 +1,66 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import ovh.snet.grzybek.controller.client.core.ControllerClientStubServer;
+import ovh.snet.grzybek.controller.client.core.ExchangeCorpus;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how to serve recorded exchanges from a stub server.
+ * <p>
+ * With the `controller-client.recording.dir` property set, every call through a Controller Client
+ * that passes its expectations is recorded into an indexed corpus in that directory. The
+ * `ControllerClientStubServer` serves the corpus on localhost, so integration tests of other
+ * services can run against responses verified by this service's tests instead of booting it.
+ * <p>
+ * Key Concepts:
+ * - Requests are matched on method, path template, query and the hash of the body, so a recording
+ * of `/example/path/recorded` also answers `/example/path/other`.
+ * - Responses are written as they are recorded, the index when the application context closes;
+ * `ExchangeCorpus.flushRecording()` writes it earlier.
+ * - Warm-up calls and the calls of stress and payload scaling runs are not recorded.
+ */
+@SpringBootTest(properties = "controller-client.recording.dir=build/exchanges")
+@AutoConfigureMockMvc
+class StubServerExamples {
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void serveRecordedExchanges() throws Exception {
+        var client = controllerClientFactory.builder(ExampleController.class).expectStatus(200).build();
+        client.pathExample("recorded");
+        client.paramExample("hello");
+        ExchangeCorpus.flushRecording();
+
+        var http = HttpClient.newHttpClient();
+        try (var stub = ControllerClientStubServer.start(Path.of("build/exchanges"))) {
+            var byTemplate = http.send(
+                    HttpRequest.newBuilder(stub.baseUri().resolve("/example/path/other")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(byTemplate.statusCode()).isEqualTo(200);
+            assertThat(byTemplate.body()).isEqualTo("{\"message\":\"Received: recorded\"}");
+
+            var byQuery = http.send(
+                    HttpRequest.newBuilder(stub.baseUri().resolve("/example/param?message=hello")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(byQuery.body()).isEqualTo("{\"message\":\"Received: hello\"}");
+
+            var notRecorded = http.send(
+                    HttpRequest.newBuilder(stub.baseUri().resolve("/example/param?message=other")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(notRecorded.statusCode()).isEqualTo(404);
+        }
+    }
+}
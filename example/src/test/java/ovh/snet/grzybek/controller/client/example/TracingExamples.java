@@ -0,0 +1,89 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates how to trace controller calls.
+ * <p>
+ * With the `controller-client.tracing.file` property set, every call through a Controller Client
+ * is recorded as a span named after the controller method, with child spans for preparing the
+ * request, `MockMvc.perform` and handling the response. The spans are appended to the given file
+ * in the OTLP/JSON lines format, so slow test runs can be opened in a trace viewer without running
+ * a collector.
+ * <p>
+ * Key Concepts:
+ * - Every request carries a W3C `traceparent` header, so server-side spans created by Micrometer
+ * Tracing nest under the `MockMvc.perform` span.
+ * - Spans are written whenever `controller-client.tracing.chunk-size` spans have been collected,
+ * and when the application context closes.
+ * - Only clients of the application context with the property set are traced.
+ */
+@SpringBootTest(properties = {
+        "controller-client.tracing.file=build/traces/tracing-examples.jsonl",
+        "controller-client.tracing.chunk-size=1"
+})
+@AutoConfigureMockMvc
+class TracingExamples {
+
+    @Autowired
+    private ControllerClientFactory controllerClientFactory;
+
+    @Test
+    void propagateTraceparent() {
+        var traceparent = new AtomicReference<String>();
+        var client = controllerClientFactory.builder(ExampleController.class)
+                .customizeResponse(result -> {
+                    traceparent.set(result.andReturn().getRequest().getHeader("traceparent"));
+                    return result;
+                })
+                .build();
+
+        client.exampleMethod();
+
+        assertThat(traceparent.get()).matches("00-[0-9a-f]{32}-[0-9a-f]{16}-01");
+    }
+
+    @Test
+    void exportSpans() throws Exception {
+        var traceparent = new AtomicReference<String>();
+        var client = controllerClientFactory.builder(ExampleController.class)
+                .customizeResponse(result -> {
+                    traceparent.set(result.andReturn().getRequest().getHeader("traceparent"));
+                    return result;
+                })
+                .build();
+
+        client.exampleMethod();
+
+        var traceId = traceparent.get().split("-")[1];
+        var performSpanId = traceparent.get().split("-")[2];
+        var spans = new ArrayList<JsonNode>();
+        for (var line : Files.readAllLines(Path.of("build/traces/tracing-examples.jsonl"))) {
+            for (var span : JsonMapper.builder().build().readTree(line)
+                    .at("/resourceSpans/0/scopeSpans/0/spans")) {
+                if (span.get("traceId").asString().equals(traceId)) {
+                    spans.add(span);
+                }
+            }
+        }
+
+        assertThat(spans).extracting(span -> span.get("name").asString())
+                .contains("prepare request", "mockMvc.perform", "handle response");
+        assertThat(spans).filteredOn(span -> span.get("name").asString().equals("mockMvc.perform"))
+                .singleElement()
+                .satisfies(span -> assertThat(span.get("spanId").asString()).isEqualTo(performSpanId));
+    }
+}
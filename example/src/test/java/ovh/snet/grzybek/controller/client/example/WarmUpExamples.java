@@ -0,0 +1,78 @@
+package ovh.snet.grzybek.controller.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpStatus;
+import ovh.snet.grzybek.controller.client.core.ControllerClientCaller;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import ovh.snet.grzybek.controller.client.core.ControllerClientWarmUp;
+import ovh.snet.grzybek.controller.client.core.annotation.AutowireControllerClientCaller;
+import ovh.snet.grzybek.controller.client.core.annotation.ControllerClientWarmUpCustomizer;
+import ovh.snet.grzybek.controller.client.core.annotation.WarmUpControllerClient;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This test class demonstrates warming up endpoints before latency assertions.
+ * <p>
+ * `@WarmUpControllerClient` executes the calls defined by a `ControllerClientWarmUpCustomizer`
+ * once per application context before the tests of the class run, so class loading, proxy
+ * generation and JIT compilation do not end up in the measured latencies. The same can be done
+ * programmatically with `ControllerClientFactory.warmUp`.
+ * <p>
+ * Customizers may set the number of iterations themselves; `iterations` of the annotation overrides
+ * it for all of them.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WarmUpControllerClient(
+        value = {WarmUpExamples.ExampleWarmUp.class, WarmUpExamples.CountedWarmUp.class},
+        untilStable = true)
+class WarmUpExamples {
+
+    private static final AtomicInteger COUNTED_CALLS = new AtomicInteger();
+
+    @AutowireControllerClientCaller
+    private ControllerClientCaller<ExampleController> clientCaller;
+
+    @Test
+    void latencyAfterWarmUp() {
+        clientCaller
+                .when(ExampleController::exampleMethod)
+                .thenStatus(HttpStatus.OK.value())
+                .repeat(100)
+                .thenPercentileBelow(0.9, Duration.ofMillis(500))
+                .execute();
+    }
+
+    @Test
+    void keepIterationsOfCustomizer() {
+        assertThat(COUNTED_CALLS).hasValue(3);
+    }
+
+    static class ExampleWarmUp implements ControllerClientWarmUpCustomizer {
+
+        @Override
+        public ControllerClientWarmUp<?> warmUp(ControllerClientFactory factory) {
+            return factory.warmUp(ExampleController.class,
+                    ExampleController::exampleMethod,
+                    c -> c.bodyExample(new ExampleRequest("warm-up")))
+                    .iterations(500);
+        }
+    }
+
+    static class CountedWarmUp implements ControllerClientWarmUpCustomizer {
+
+        @Override
+        public ControllerClientWarmUp<?> warmUp(ControllerClientFactory factory) {
+            return factory.warmUp(ExampleController.class, c -> {
+                COUNTED_CALLS.incrementAndGet();
+                return c.exampleMethod();
+            }).iterations(3);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.core.MethodParameter;
+
+/**
+ * Strategy for writing controller method arguments into the request.
+ *
+ * <p>Binders are consulted once per parameter, when the call plan of a controller method is built.
+ * The first binder returning a binding wins, so each call only runs the chosen bindings. Custom
+ * binders registered with {@link ControllerClientBuilder#argumentBinder(ArgumentBinder)} are
+ * consulted before the built-in ones, which cover {@code @PathVariable}, {@code @MatrixVariable},
+ * {@code @RequestParam}, {@code @RequestHeader}, {@code @CookieValue}, {@code @RequestBody},
+ * {@code @ModelAttribute}, {@link java.io.InputStream} and, with Spring Data on the classpath,
+ * {@code Pageable} parameters. Parameters no binder handles, such as {@code HttpServletRequest},
+ * are not sent.
+ *
+ * <pre>{@code
+ * ArgumentBinder tenantBinder = parameter -> parameter.getParameterType() == TenantId.class
+ *         ? (value, request) -> request.header("X-Tenant", value.toString())
+ *         : null;
+ * }</pre>
+ */
+@FunctionalInterface
+public interface ArgumentBinder {
+
+    /**
+     * Resolves how values of the given parameter are written into the request.
+     *
+     * @param parameter the controller method parameter
+     * @return the binding, or {@code null} if this binder does not handle the parameter
+     */
+    ArgumentBinding resolve(MethodParameter parameter);
+}
@@ -0,0 +1,17 @@
+package ovh.snet.grzybek.controller.client.core;
+
+/**
+ * Writes the value of a single controller method argument into the request. Created by an {@link
+ * ArgumentBinder} once per parameter and invoked on every call.
+ */
+@FunctionalInterface
+public interface ArgumentBinding {
+
+    /**
+     * Writes the argument into the request.
+     *
+     * @param value   the argument passed to the proxy, may be {@code null}
+     * @param request the request being prepared
+     */
+    void bind(Object value, ControllerRequest request) throws Exception;
+}
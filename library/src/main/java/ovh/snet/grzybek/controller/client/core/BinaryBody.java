@@ -0,0 +1,92 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Maps response bodies to binary return types without decoding them as text.
+ *
+ * <p>{@code MockHttpServletResponse} only hands out a copy of its buffer, so every type is backed by
+ * that single copy; streams, buffers and resources wrap it instead of copying it again. Spilling to
+ * a file happens after that copy, so it keeps large bodies out of the returned values but does not
+ * lower the peak memory of a call.
+ *
+ * <p>Spilled bodies returned as an {@link InputStream} are deleted when the stream is closed. Files
+ * behind a {@link Path} or a {@link FileSystemResource} belong to the caller, who deletes them once
+ * done.
+ */
+final class BinaryBody {
+
+    private BinaryBody() {
+    }
+
+    static boolean supports(Class<?> type) {
+        return type == byte[].class
+                || type == ByteBuffer.class
+                || type == InputStream.class
+                || type == Path.class
+                || Resource.class.isAssignableFrom(type)
+                && (type.isAssignableFrom(ByteArrayResource.class)
+                || type.isAssignableFrom(FileSystemResource.class)
+                || type == InputStreamResource.class);
+    }
+
+    /**
+     * @param spillThreshold size above which {@link InputStream} and {@link Resource} bodies are
+     *                       served from a temporary file, unless the method returns a {@link
+     *                       ByteArrayResource}
+     */
+    static Object map(Class<?> type, MockHttpServletResponse response, long spillThreshold) {
+        var content = response.getContentAsByteArray();
+        if (type == byte[].class) {
+            return content;
+        } else if (type == ByteBuffer.class) {
+            return ByteBuffer.wrap(content).asReadOnlyBuffer();
+        } else if (type == Path.class) {
+            return spill(content);
+        } else if (type == InputStream.class) {
+            return stream(content, spillThreshold);
+        } else if (type == InputStreamResource.class) {
+            return new InputStreamResource(stream(content, spillThreshold));
+        } else if (type.isAssignableFrom(FileSystemResource.class)
+                && (content.length > spillThreshold || !type.isAssignableFrom(ByteArrayResource.class))) {
+            return new FileSystemResource(spill(content));
+        }
+        return new ByteArrayResource(content);
+    }
+
+    private static InputStream stream(byte[] content, long spillThreshold) {
+        if (content.length <= spillThreshold) {
+            return new ByteArrayInputStream(content);
+        }
+        try {
+            return Files.newInputStream(spill(content), StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the body to a temporary file, deleted by whoever the file is handed to.
+     */
+    private static Path spill(byte[] content) {
+        try {
+            var file = Files.createTempFile("controller-client-", ".body");
+            return Files.write(file, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write response body to a temporary file", e);
+        }
+    }
+}
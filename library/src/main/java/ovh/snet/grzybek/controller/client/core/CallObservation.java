@@ -0,0 +1,18 @@
+package ovh.snet.grzybek.controller.client.core;
+
+/**
+ * What is observed around the calls of the clients created by one factory. Set from the
+ * configuration of the application context the factory belongs to, so enabling an observation in
+ * one context does not affect clients of other contexts in the same JVM.
+ *
+ * @param sqlTracking         whether the data sources of the context are tracked, see {@link
+ *                            SqlRecorder}
+ * @param traceExporter       the exporter calls are traced to, or {@code null} if they are not
+ *                            traced
+ * @param exchangeLogCapacity the number of exchanges kept per thread by the {@link ExchangeLog}
+ * @param recording           the corpus calls are recorded into, or {@code null} if they are not
+ *                            recorded
+ */
+record CallObservation(boolean sqlTracking, TraceExporter traceExporter, int exchangeLogCapacity,
+                       ExchangeCorpus recording) {
+}
@@ -0,0 +1,112 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Trace of a single proxied call: a span named after the controller method with child spans for
+ * request preparation, {@code MockMvc.perform} and response handling.
+ *
+ * <p>The {@code traceparent} header of the request points at the perform span, so spans created by
+ * Micrometer Tracing on the server side nest under it. Clients of an application context without
+ * an exporter, or whose exporter is closed, get {@code null} from {@link #start} and pay nothing for
+ * tracing.
+ */
+final class CallTrace {
+
+    private static final Instant START = Instant.now();
+    private static final long EPOCH_NANOS_AT_START = START.getEpochSecond() * 1_000_000_000L + START.getNano();
+    private static final long NANO_TIME_AT_START = System.nanoTime();
+
+    private final TraceExporter target;
+    private final String operation;
+    private final ControllerEndpoint endpoint;
+    private final String traceId = randomHex(16);
+    private final String rootSpanId = randomHex(8);
+    private final String performSpanId = randomHex(8);
+    private final long startNanos = System.nanoTime();
+    private long preparedNanos;
+    private long performStartNanos;
+    private long performEndNanos;
+    private int status;
+
+    private CallTrace(TraceExporter target, String operation, ControllerEndpoint endpoint) {
+        this.target = target;
+        this.operation = operation;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Starts tracing a call, or returns {@code null} if tracing is disabled.
+     *
+     * @param exporter the exporter of the client's application context, or {@code null}
+     */
+    static CallTrace start(TraceExporter exporter, String operation, ControllerEndpoint endpoint) {
+        return exporter == null || exporter.isClosed() ? null : new CallTrace(exporter, operation, endpoint);
+    }
+
+    void prepared() {
+        preparedNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the W3C {@code traceparent} header value for the request.
+     */
+    String traceparent() {
+        return "00-" + traceId + "-" + performSpanId + "-01";
+    }
+
+    void performed(long startNanos, long endNanos, int status) {
+        this.performStartNanos = startNanos;
+        this.performEndNanos = endNanos;
+        this.status = status;
+    }
+
+    /**
+     * Ends the call and hands its spans to the exporter.
+     *
+     * @param failure the exception the call failed with, or {@code null}
+     */
+    void end(Throwable failure) {
+        long endNanos = System.nanoTime();
+        var attributes = Map.of(
+                "code.function", operation,
+                "http.request.method", endpoint.httpMethod().name(),
+                "http.route", endpoint.pattern());
+        var spans = new ArrayList<TraceExporter.Span>();
+        spans.add(span(rootSpanId, null, operation, false, startNanos, endNanos, attributes, failure != null));
+        if (preparedNanos != 0) {
+            spans.add(span(randomHex(8), rootSpanId, "prepare request", false, startNanos, preparedNanos,
+                    Map.of(), false));
+        }
+        if (performEndNanos != 0) {
+            spans.add(span(performSpanId, rootSpanId, "mockMvc.perform", true, performStartNanos, performEndNanos,
+                    Map.of("http.response.status_code", String.valueOf(status)), status >= 500));
+            spans.add(span(randomHex(8), rootSpanId, "handle response", false, performEndNanos, endNanos,
+                    Map.of(), failure != null));
+        }
+        target.export(List.copyOf(spans));
+    }
+
+    private TraceExporter.Span span(String spanId, String parentSpanId, String name, boolean client, long start,
+                                    long end, Map<String, String> attributes, boolean error) {
+        return new TraceExporter.Span(traceId, spanId, parentSpanId, name, client, epochNanos(start), epochNanos(end),
+                attributes, error);
+    }
+
+    private static long epochNanos(long nanoTime) {
+        return EPOCH_NANOS_AT_START + (nanoTime - NANO_TIME_AT_START);
+    }
+
+    private static String randomHex(int bytes) {
+        var random = ThreadLocalRandom.current();
+        var hex = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes * 2; i++) {
+            hex.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,220 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Per-invocation state of a call made through a controller proxy.
+ *
+ * <p>A context is opened on the calling thread before the proxy is invoked and closed afterwards.
+ * The proxy records the response into the context of the current thread instead of into a field
+ * shared by every caller, so concurrent calls on the same proxy never see each other's responses.
+ * A context may also carry expectations that apply only to the calls made within it, and allow the
+ * proxy to skip mapping of the response body when the caller does not use the returned value.
+ * Calls made within a warm-up context are executed like any other call, but are kept out of the
+ * exchange log, the recorded corpus, the test map, traces and flight recordings.
+ *
+ * <pre>{@code
+ * try (var context = ControllerCallContext.open(List.of(), false)) {
+ *     var body = call.apply(client);
+ *     return new ControllerResponse<>(context, body);
+ * }
+ * }</pre>
+ */
+final class ControllerCallContext implements AutoCloseable {
+
+    private static final ThreadLocal<ControllerCallContext> CURRENT = new ThreadLocal<>();
+
+    private final ControllerCallContext previous;
+    private final List<Function<ResultActions, ResultActions>> expectations;
+    private final boolean deferBody;
+    private final boolean warmUp;
+    private boolean measured;
+    private String measurementVariant = "";
+    private boolean synthetic;
+    private MockHttpServletResponse response;
+    private String operation;
+    private long elapsedNanos;
+    private long allocatedBytes;
+    private SqlStatistics sqlStatistics = SqlStatistics.NONE;
+
+    private ControllerCallContext(
+            ControllerCallContext previous,
+            List<Function<ResultActions, ResultActions>> expectations,
+            boolean deferBody,
+            boolean warmUp) {
+        this.previous = previous;
+        this.expectations = expectations;
+        this.deferBody = deferBody;
+        this.warmUp = warmUp || previous != null && previous.warmUp;
+    }
+
+    /**
+     * Opens a new context on the current thread. Nested contexts are restored on {@link #close()}.
+     */
+    static ControllerCallContext open() {
+        return open(List.of(), false);
+    }
+
+    /**
+     * Opens a new context on the current thread with expectations applied to every call made within
+     * it, after the ones configured on the client.
+     *
+     * @param deferBody whether the proxy may skip mapping the body with {@link ResponseMapping#LAZY},
+     *                  because the returned value is not used by the caller
+     */
+    static ControllerCallContext open(
+            List<Function<ResultActions, ResultActions>> expectations, boolean deferBody) {
+        var context = new ControllerCallContext(CURRENT.get(), expectations, deferBody, false);
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * Opens a new context on the current thread for warm-up calls, with expectations applied to
+     * every call made within it. Contexts opened within it are warm-up contexts as well.
+     */
+    static ControllerCallContext openWarmUp(List<Function<ResultActions, ResultActions>> expectations) {
+        var context = new ControllerCallContext(CURRENT.get(), expectations, false, true);
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * Returns whether the call on the current thread is made to warm up, so recorders skip it.
+     */
+    static boolean isWarmUp() {
+        var context = CURRENT.get();
+        return context != null && context.warmUp;
+    }
+
+    /**
+     * Returns the context opened on the current thread, or {@code null} if the proxy is called
+     * directly.
+     */
+    static ControllerCallContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Marks the calls made within this context as measured, so each of them is written to the
+     * performance results.
+     */
+    ControllerCallContext measure() {
+        this.measured = true;
+        return this;
+    }
+
+    /**
+     * Marks the calls made within this context as measured under conditions that are not comparable
+     * with plain measured calls, such as concurrent load. They are written to the performance
+     * results as {@code ControllerClass#method@variant}, apart from the other samples of the method.
+     */
+    ControllerCallContext measure(String variant) {
+        this.measured = true;
+        this.measurementVariant = "@" + variant;
+        return this;
+    }
+
+    boolean isMeasured() {
+        return measured;
+    }
+
+    /**
+     * Returns the key the given controller method is measured under within this context.
+     */
+    String measuredOperation(String operation) {
+        return measurementVariant.isEmpty() ? operation : operation + measurementVariant;
+    }
+
+    /**
+     * Marks the calls made within this context as made by a load harness, such as a stress or
+     * payload scaling run, so they are not recorded into the exchange corpus.
+     */
+    ControllerCallContext synthetic() {
+        this.synthetic = true;
+        return this;
+    }
+
+    boolean isSynthetic() {
+        return synthetic;
+    }
+
+    List<Function<ResultActions, ResultActions>> expectations() {
+        return expectations;
+    }
+
+    void recordResponse(String operation, MockHttpServletResponse response, long elapsedNanos,
+                        long allocatedBytes, SqlStatistics sqlStatistics) {
+        this.operation = operation;
+        this.response = response;
+        this.elapsedNanos += elapsedNanos;
+        this.allocatedBytes = this.allocatedBytes < 0 || allocatedBytes < 0
+                ? -1
+                : this.allocatedBytes + allocatedBytes;
+        this.sqlStatistics = this.sqlStatistics.plus(sqlStatistics);
+    }
+
+    /**
+     * Returns the controller method of the last proxied call made within this context, as {@code
+     * ControllerClass#method}, or {@code null} if no call was made.
+     */
+    String operation() {
+        return operation;
+    }
+
+    /**
+     * Returns the time spent in {@code MockMvc.perform} by all proxied calls made within this
+     * context.
+     */
+    long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the bytes allocated by the calling thread in {@code MockMvc.perform} by all proxied
+     * calls made within this context, or {@code -1} if not supported by the JVM.
+     */
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the JDBC statements executed by all proxied calls made within this context.
+     */
+    SqlStatistics sqlStatistics() {
+        return sqlStatistics;
+    }
+
+    boolean defersBody() {
+        return deferBody;
+    }
+
+    boolean hasResponse() {
+        return response != null;
+    }
+
+    /**
+     * Returns the response of the last proxied call made within this context.
+     *
+     * @throws IllegalStateException if no call has been made through a proxy
+     */
+    MockHttpServletResponse response() {
+        if (response == null) {
+            throw new IllegalStateException("No controller call was made through the client");
+        }
+        return response;
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Single row of a {@link ControllerClientBatch}: the controller action to invoke together with the
+ * expectations checked on its response.
+ *
+ * <pre>{@code
+ * var spec = ControllerCallSpec.<MyController>of(c -> c.create(request), 201)
+ *         .then(result -> result.andExpect(header().exists("Location")));
+ * }</pre>
+ *
+ * @param call         the controller action to invoke
+ * @param expectations the expectations applied to the response of the call
+ */
+public record ControllerCallSpec<T>(Function<T, Object> call,
+                                    List<Function<ResultActions, ResultActions>> expectations) {
+
+    public ControllerCallSpec {
+        expectations = List.copyOf(expectations);
+    }
+
+    /**
+     * Creates a spec without any expectations.
+     */
+    public static <T> ControllerCallSpec<T> of(Function<T, Object> call) {
+        return new ControllerCallSpec<>(call, List.of());
+    }
+
+    /**
+     * Creates a spec that expects the given HTTP status code.
+     */
+    public static <T> ControllerCallSpec<T> of(Function<T, Object> call, int expectedStatus) {
+        return ControllerCallSpec.<T>of(call).then(
+                resultActions -> {
+                    try {
+                        return resultActions.andExpect(status().is(expectedStatus));
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    /**
+     * Returns a copy of this spec with an additional expectation.
+     */
+    public ControllerCallSpec<T> then(Function<ResultActions, ResultActions> expectation) {
+        var customizers = new ArrayList<>(expectations);
+        customizers.add(expectation);
+        return new ControllerCallSpec<>(call, customizers);
+    }
+}
@@ -3,152 +3,139 @@ package ovh.snet.grzybek.controller.client.core;
 import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.cglib.proxy.Factory;
 import org.springframework.cglib.proxy.MethodInterceptor;
-import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.io.InputStreamSource;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletResponse;
-import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.objenesis.ObjenesisStd;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
-import org.springframework.test.web.servlet.request.*;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.test.web.servlet.request.AbstractMockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import tools.jackson.core.JacksonException;
 import tools.jackson.databind.ObjectMapper;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.*;
-import java.util.function.Consumer;
-import java.util.function.Function;
-import java.util.stream.IntStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class ControllerClient<T> {
 
+    private static final Map<Class<?>, Class<?>> PROXY_CLASSES = new ConcurrentHashMap<>();
+    private static final ObjenesisStd OBJENESIS = new ObjenesisStd(true);
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
     private final Class<?> clazz;
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
-    private final List<Consumer<AbstractMockHttpServletRequestBuilder<?>>> requestCustomizers;
-    private final List<Function<ResultActions, ResultActions>> resultCustomizers;
-    private final List<Consumer<MockHttpServletResponse>> responseHandlers;
+    private final ControllerClientConfiguration configuration;
+    private final Map<Method, CallPlan> callPlans;
+    private final MockHttpServletRequestBuilder requestTemplate;
 
     public ControllerClient(
             Class<?> clazz,
             MockMvc mockMvc,
             ObjectMapper objectMapper,
-            List<Consumer<AbstractMockHttpServletRequestBuilder<?>>> requestCustomizers,
-            List<Function<ResultActions, ResultActions>> resultCustomizers,
-            List<Consumer<MockHttpServletResponse>> responseHandlers) {
+            ControllerClientConfiguration configuration,
+            ControllerEndpointIndex endpointIndex) {
         this.clazz = clazz;
         this.mockMvc = mockMvc;
         this.objectMapper = objectMapper;
-        this.requestCustomizers = requestCustomizers;
-        this.resultCustomizers = resultCustomizers;
-        this.responseHandlers = responseHandlers;
-    }
-
-    @SuppressWarnings("unchecked")
-    T getClient() {
-        Enhancer enhancer = new Enhancer();
-        enhancer.setSuperclass(clazz);
-        enhancer.setCallbackType(MethodInterceptor.class);
-
-        Class<?> proxyClass = enhancer.createClass();
-
-        var objenesis = new ObjenesisStd();
-        Object instance = objenesis.newInstance(proxyClass);
-
-        MethodInterceptor interceptor = (obj, method, args, proxy) -> intercept(method, args);
-        ((Factory) instance).setCallback(0, interceptor);
-
-        return (T) instance;
+        this.configuration = configuration;
+
+        var binders = new ArrayList<>(configuration.argumentBinders());
+        binders.addAll(StandardArgumentBinders.create(objectMapper));
+        var plans = new HashMap<Method, CallPlan>();
+        resolveEndpoints(clazz, endpointIndex).forEach((method, endpoint) ->
+                plans.put(method, CallPlan.create(method, endpoint, binders)));
+        this.callPlans = Map.copyOf(plans);
+        this.requestTemplate = createRequestTemplate(configuration);
     }
 
     /**
-     * Build either a regular or multipart request builder, using Spring 6.2+ types.
+     * Applies the static request customizers once. The template is only read afterwards, when it
+     * is merged into the requests after everything else is set on them, so it can be shared
+     * between threads.
      */
-    private static AbstractMockHttpServletRequestBuilder<?> getRequestBuilder(
-            Method method, RequestMapping requestMapping, String endpoint) {
-
-        if (isMultipart(method)) {
-            MockMultipartHttpServletRequestBuilder multipartBuilder =
-                    MockMvcRequestBuilders.multipart(endpoint);
-
-            // multipart() defaults to POST; override if needed
-            multipartBuilder.with(request -> {
-                request.setMethod(requestMapping.method()[0].name());
-                return request;
-            });
-
-            return multipartBuilder;
+    private static MockHttpServletRequestBuilder createRequestTemplate(ControllerClientConfiguration configuration) {
+        if (configuration.staticRequestCustomizers().isEmpty()) {
+            return null;
         }
-
-        MockHttpServletRequestBuilder builder =
-                MockMvcRequestBuilders.request(requestMapping.method()[0].asHttpMethod(), endpoint);
-
-        return builder;
+        var template = MockMvcRequestBuilders.get("/");
+        configuration.staticRequestCustomizers().forEach(customizer -> customizer.accept(template));
+        return template;
     }
 
     /**
-     * Null-safe request params + multipart support.
+     * Resolves the endpoints of the controller once, when the client is built. Mappings registered
+     * in the application context take precedence; annotations are only used for controllers the
+     * context does not know about. Interfaces are treated as Spring HTTP interfaces and resolved
+     * from their {@code @HttpExchange} annotations.
+     *
+     * @throws IllegalStateException if the controller has no endpoints or an annotated method is not
+     *                               registered in the application context
      */
-    private static void setRequestParams(
-            Method method,
-            Object[] args,
-            AbstractMockHttpServletRequestBuilder<?> requestBuilder) {
+    private static Map<Method, ControllerEndpoint> resolveEndpoints(
+            Class<?> clazz, ControllerEndpointIndex endpointIndex) {
+        if (clazz.isInterface()) {
+            var exchanges = ControllerEndpoint.fromHttpExchange(clazz);
+            if (exchanges.isEmpty()) {
+                throw new IllegalStateException("No @HttpExchange methods found on " + clazz.getName());
+            }
+            return exchanges;
+        }
 
-        var queryParams = getRequestParams(method, args);
+        var annotated = ControllerEndpoint.fromAnnotations(clazz);
+        var registered = endpointIndex != null ? endpointIndex.endpointsOf(clazz) : Map.<Method, ControllerEndpoint>of();
 
-        queryParams.forEach((key, value) -> {
-            if (value == null) {
-                return;
+        if (registered.isEmpty()) {
+            if (annotated.isEmpty()) {
+                throw new IllegalStateException("No request mappings found on " + clazz.getName());
             }
+            return annotated;
+        }
 
-            // Multipart file param
-            if (value instanceof MockMultipartFile multipartFile) {
-                if (requestBuilder instanceof AbstractMockMultipartHttpServletRequestBuilder<?> multipartBuilder) {
-                    multipartBuilder.file(multipartFile);
-                } else {
-                    throw new IllegalStateException(
-                            "MockMultipartFile provided for parameter '" + key +
-                                    "' but request is not multipart");
-                }
-                return;
+        for (var method : annotated.keySet()) {
+            if (!registered.containsKey(method)) {
+                throw new IllegalStateException(
+                        "Method " + clazz.getName() + "#" + method.getName() +
+                                " is annotated with @RequestMapping but is not registered in the application context");
             }
+        }
+        return registered;
+    }
 
-            // Collections -> multiple values
-            if (value instanceof Collection<?> collection) {
-                String[] values = collection.stream()
-                        .map(v -> v == null ? "" : v.toString())
-                        .toArray(String[]::new);
-                requestBuilder.param(key, values);
-                return;
-            }
+    @SuppressWarnings("unchecked")
+    T getClient() {
+        Class<?> proxyClass = PROXY_CLASSES.computeIfAbsent(clazz, ControllerClient::createProxyClass);
+        Object instance = OBJENESIS.newInstance(proxyClass);
 
-            // Arrays -> multiple values
-            if (value.getClass().isArray()) {
-                int len = java.lang.reflect.Array.getLength(value);
-                String[] values = new String[len];
-                for (int i = 0; i < len; i++) {
-                    Object elt = java.lang.reflect.Array.get(value, i);
-                    values[i] = elt == null ? "" : elt.toString();
-                }
-                requestBuilder.param(key, values);
-                return;
-            }
+        MethodInterceptor interceptor = (obj, method, args, proxy) -> intercept(method, args);
+        ((Factory) instance).setCallback(0, interceptor);
+
+        return (T) instance;
+    }
 
-            // Simple value
-            requestBuilder.param(key, value.toString());
-        });
+    /**
+     * Generates the proxy class. Callbacks are set per instance, so the class is shared by all
+     * clients of the same controller.
+     */
+    private static Class<?> createProxyClass(Class<?> clazz) {
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(clazz);
+        enhancer.setCallbackType(MethodInterceptor.class);
+        return enhancer.createClass();
     }
 
     private static Class<?> getaClass(Type type) {
@@ -158,29 +145,118 @@ class ControllerClient<T> {
         throw new UnsupportedOperationException("Unsupported type argument: " + type.getTypeName());
     }
 
-    private static String setPathVariables(Method method, Object[] args, String endpoint) {
-        var pathVariables = getPathVariable(method, args);
-        for (var entry : pathVariables.entrySet()) {
-            String replacement = entry.getValue() == null ? "" : entry.getValue().toString();
-            endpoint = endpoint.replace("{" + entry.getKey() + "}", replacement);
+    private Object intercept(Method method, Object[] args) throws Exception {
+        var callPlan = callPlans.get(method);
+        if (callPlan == null) {
+            throw new IllegalStateException(
+                    "No @RequestMapping found on method " +
+                            method.getDeclaringClass().getName() + "#" + method.getName());
+        }
+
+        if (ControllerCallContext.isWarmUp()) {
+            return execute(method, callPlan, args, null, null);
+        }
+        var trace = CallTrace.start(configuration.observation().traceExporter(), callPlan.operation(),
+                callPlan.endpoint());
+        var event = ControllerClientCallEvent.begin(clazz, method.getName(), callPlan.endpoint());
+        if (trace == null && event == null) {
+            return execute(method, callPlan, args, null, null);
+        }
+        try {
+            var result = execute(method, callPlan, args, trace, event);
+            finish(trace, event, null);
+            return result;
+        } catch (Throwable e) {
+            finish(trace, event, e);
+            throw e;
+        }
+    }
+
+    private static void finish(CallTrace trace, ControllerClientCallEvent event, Throwable failure) {
+        if (trace != null) {
+            trace.end(failure);
+        }
+        if (event != null) {
+            event.finish();
         }
-        // Collapse duplicate slashes except after scheme (://)
-        endpoint = endpoint.replaceAll("(?<!:)//+", "/");
-        return endpoint;
     }
 
-    private Object intercept(Method method, Object[] args) throws Exception {
-        AbstractMockHttpServletRequestBuilder<?> requestBuilder = prepareRequest(method, args);
+    private Object execute(Method method, CallPlan callPlan, Object[] args, CallTrace trace,
+                           ControllerClientCallEvent event) throws Exception {
+        AbstractMockHttpServletRequestBuilder<?> requestBuilder = prepareRequest(callPlan, args);
 
         // Apply customizers
-        requestCustomizers.forEach(customizer -> customizer.accept(requestBuilder));
-
-        var perform = mockMvc.perform(requestBuilder);
-        resultCustomizers.forEach(customizer -> customizer.apply(perform));
+        configuration.requestCustomizers().forEach(customizer -> customizer.accept(requestBuilder));
+        if (trace != null) {
+            requestBuilder.header("traceparent", trace.traceparent());
+        }
+        // Merged last: merge shares the template's header and parameter values with the request, so
+        // adding to them afterwards would change the template for every later call
+        if (requestTemplate != null) {
+            requestBuilder.merge(requestTemplate);
+        }
+        if (trace != null) {
+            trace.prepared();
+        }
+        if (event != null) {
+            event.prepared();
+        }
 
+        var sqlRecorder = configuration.observation().sqlTracking() ? SqlRecorder.start() : null;
+        long allocatedBefore = ThreadAllocation.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        ResultActions perform;
+        try {
+            perform = mockMvc.perform(requestBuilder);
+        } finally {
+            if (sqlRecorder != null) {
+                sqlRecorder.close();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBefore < 0
+                ? -1
+                : ThreadAllocation.currentThreadAllocatedBytes() - allocatedBefore;
         var response = perform.andReturn().getResponse();
+        if (trace != null) {
+            trace.performed(start, start + elapsed, response.getStatus());
+        }
+        if (event != null) {
+            event.performed(elapsed, perform.andReturn().getRequest(), response);
+        }
 
-        responseHandlers.forEach(handler -> handler.accept(response));
+        var context = ControllerCallContext.current();
+        if (context != null) {
+            context.recordResponse(callPlan.operation(), response, elapsed, allocated,
+                    sqlRecorder != null ? sqlRecorder.statistics() : SqlStatistics.NONE);
+            if (context.isMeasured()) {
+                PerfResults.record(context.measuredOperation(callPlan.operation()), elapsed, allocated);
+            }
+        }
+
+        var request = perform.andReturn().getRequest();
+        var warmUp = ControllerCallContext.isWarmUp();
+        if (!warmUp) {
+            ExchangeLog.record(configuration.observation().exchangeLogCapacity(), callPlan.operation(),
+                    request, response, elapsed);
+            TestMap.record(clazz, callPlan.operation());
+        }
+
+        try {
+            configuration.resultCustomizers().forEach(customizer -> customizer.apply(perform));
+            if (context != null) {
+                context.expectations().forEach(expectation -> expectation.apply(perform));
+            }
+            configuration.responseHandlers().forEach(handler -> handler.accept(response));
+        } catch (AssertionError e) {
+            ExchangeLog.attachTo(e);
+            throw e;
+        }
+        // Only exchanges that passed the expectations make it into the corpus
+        var recording = configuration.observation().recording();
+        if (recording != null && !warmUp && (context == null || !context.isSynthetic())) {
+            recording.record(callPlan.endpoint(), request, response);
+        }
 
         var returnType = method.getGenericReturnType();
         if (returnType.equals(Void.TYPE)) {
@@ -191,10 +267,29 @@ class ControllerClient<T> {
             return null;
         }
 
-        if (returnType instanceof ParameterizedType) {
+        if (configuration.responseMapping() == ResponseMapping.STATUS_ONLY) {
+            return null;
+        }
+
+        // Nobody reads the returned value, so there is nothing to map it for
+        if (configuration.responseMapping() == ResponseMapping.LAZY && context != null && context.defersBody()) {
+            return null;
+        }
+
+        return mapBody(returnType, response);
+    }
+
+    private Object mapBody(Type returnType, MockHttpServletResponse response)
+            throws UnsupportedEncodingException {
+        if (returnType instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() == ResponseEntity.class) {
+            return mapResponseEntity(parameterizedType.getActualTypeArguments()[0], response);
+        } else if (returnType instanceof ParameterizedType) {
             return mapParameterizedType((ParameterizedType) returnType, response);
         } else if (returnType == String.class) {
             return response.getContentAsString();
+        } else if (returnType instanceof Class<?> type && BinaryBody.supports(type)) {
+            return BinaryBody.map(type, response, configuration.spillThreshold());
         } else if (returnType instanceof Class) {
             return objectMapper.readValue(response.getContentAsString(), (Class<?>) returnType);
         }
@@ -202,6 +297,20 @@ class ControllerClient<T> {
         throw new UnsupportedOperationException("Unsupported return type: " + returnType);
     }
 
+    /**
+     * Maps the response to a {@link ResponseEntity}, which {@code @HttpExchange} interfaces commonly
+     * return to expose status and headers to the caller.
+     */
+    private ResponseEntity<Object> mapResponseEntity(Type bodyType, MockHttpServletResponse response)
+            throws UnsupportedEncodingException {
+        var headers = new HttpHeaders();
+        response.getHeaderNames().forEach(name -> headers.addAll(name, response.getHeaders(name)));
+        var body = bodyType == Void.class || response.getContentAsByteArray().length == 0
+                ? null
+                : mapBody(bodyType, response);
+        return ResponseEntity.status(response.getStatus()).headers(headers).body(body);
+    }
+
     private Object mapParameterizedType(
             ParameterizedType returnType, MockHttpServletResponse response)
             throws JacksonException, UnsupportedEncodingException {
@@ -220,149 +329,44 @@ class ControllerClient<T> {
         return objectMapper.readValue(response.getContentAsString(), javaType);
     }
 
-    private static boolean isMultipart(Method method) {
-        return Arrays.stream(method.getParameterTypes())
-                .anyMatch(InputStreamSource.class::isAssignableFrom);
-    }
-
-    private AbstractMockHttpServletRequestBuilder<?> prepareRequest(Method method, Object[] args)
-            throws IOException {
-
-        var classAnnotations = clazz.getAnnotations();
-        var requestMapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
-
-        if (requestMapping == null) {
-            throw new IllegalStateException(
-                    "No @RequestMapping found on method " +
-                            method.getDeclaringClass().getName() + "#" + method.getName());
-        }
-
-        var requestPath = requestMapping.path();
-        var endpoint =
-                getBaseUrl(classAnnotations) + (requestPath.length > 0 ? requestMapping.path()[0] : "");
-
-        endpoint = setPathVariables(method, args, endpoint);
-
-        AbstractMockHttpServletRequestBuilder<?> requestBuilder =
-                getRequestBuilder(method, requestMapping, endpoint);
-
-        setRequestParams(method, args, requestBuilder);
-        setRequestBody(method, args, requestBuilder);
-        setInputStream(requestBuilder, args);
-
-        return requestBuilder;
-    }
-
-    private void setInputStream(
-            AbstractMockHttpServletRequestBuilder<?> requestBuilder,
-            Object[] args) throws IOException {
-
-        for (var arg : args) {
-            if (arg instanceof InputStream inputStream) {
-                requestBuilder
-                        .content(new String(inputStream.readAllBytes()))
-                        .contentType(MediaType.TEXT_PLAIN);
+    private static AbstractMockHttpServletRequestBuilder<?> prepareRequest(CallPlan callPlan, Object[] args)
+            throws Exception {
+        var request = new ControllerRequest();
+        var bindings = callPlan.bindings();
+        for (int i = 0; i < bindings.length; i++) {
+            if (bindings[i] != null) {
+                bindings[i].bind(args[i], request);
             }
         }
+        return request.toRequestBuilder(callPlan.endpoint(), callPlan.multipart());
     }
 
-    private static Map<String, Object> getRequestParams(Method method, Object[] args) {
-        var parameters = method.getParameters();
-        var result = new HashMap<String, Object>();
-
-        for (int i = 0; i < parameters.length; i++) {
-            var p = parameters[i];
-            var rp = p.getAnnotation(RequestParam.class);
-            if (rp == null) continue;
-
-            Object value = args[i];
-            if (value == null) continue;
-
-            String key = getQueryParamKey(p);
-            result.putIfAbsent(key, value);
-        }
-        return result;
-    }
-
-    private void setRequestBody(
-            Method method,
-            Object[] args,
-            AbstractMockHttpServletRequestBuilder<?> requestBuilder) {
-
-        var requestBody = getRequestBodyArg(method, args);
-        requestBody.ifPresent(
-                body -> {
-                    try {
-                        requestBuilder
-                                .content(objectMapper.writeValueAsString(body))
-                                .contentType(MediaType.APPLICATION_JSON);
-                    } catch (JacksonException e) {
-                        throw new RuntimeException(e);
+    /**
+     * Everything needed to turn a call of a controller method into a request, resolved once per
+     * method when the client is built.
+     *
+     * @param operation name under which calls are reported, as {@code ControllerClass#method}
+     * @param bindings  binding of every parameter, {@code null} for parameters that are not sent
+     */
+    private record CallPlan(String operation, ControllerEndpoint endpoint, ArgumentBinding[] bindings,
+                            boolean multipart) {
+
+        static CallPlan create(Method method, ControllerEndpoint endpoint, List<ArgumentBinder> binders) {
+            var bindings = new ArgumentBinding[method.getParameterCount()];
+            for (int i = 0; i < bindings.length; i++) {
+                var parameter = new MethodParameter(method, i);
+                parameter.initParameterNameDiscovery(PARAMETER_NAME_DISCOVERER);
+                for (var binder : binders) {
+                    bindings[i] = binder.resolve(parameter);
+                    if (bindings[i] != null) {
+                        break;
                     }
-                });
-    }
-
-    private static Optional<Object> getRequestBodyArg(Method method, Object[] args) {
-        Annotation[][] paramAnnotations = method.getParameterAnnotations();
-
-        return IntStream.range(0, paramAnnotations.length)
-                .filter(
-                        i ->
-                                Arrays.stream(paramAnnotations[i])
-                                        .anyMatch(annotation -> annotation instanceof RequestBody))
-                .mapToObj(index -> args[index])
-                .findFirst();
-    }
-
-    private static String getBaseUrl(Annotation[] classAnnotations) {
-        return Arrays.stream(classAnnotations)
-                .filter(annotation -> annotation instanceof RequestMapping)
-                .map(annotation -> (RequestMapping) annotation)
-                .map(requestMapping -> requestMapping.value()[0])
-                .findFirst()
-                .orElseThrow();
-    }
-
-    private static Map<String, Object> getPathVariable(Method method, Object[] args) {
-        var parameters = method.getParameters();
-        var result = new LinkedHashMap<String, Object>();
-
-        for (int i = 0; i < parameters.length; i++) {
-            var p = parameters[i];
-            var pv = p.getAnnotation(PathVariable.class);
-            if (pv == null) continue;
-
-            String name = getPathVariableKey(p);
-            Object value = args[i];
-
-            if (value == null) {
-                throw new IllegalArgumentException(
-                        "Path variable '" + name + "' cannot be null for " +
-                                method.getDeclaringClass().getName() + "#" + method.getName() + "(...)"
-                );
+                }
             }
-
-            result.put(name, value);
+            var multipart = Arrays.stream(method.getParameterTypes())
+                    .anyMatch(InputStreamSource.class::isAssignableFrom);
+            var operation = method.getDeclaringClass().getName() + "#" + method.getName();
+            return new CallPlan(operation, endpoint, bindings, multipart);
         }
-        return result;
-    }
-
-    private static Object getPathVariableArg(Object[] args, Parameter param, Parameter[] parameters) {
-        return args[Arrays.asList(parameters).indexOf(param)];
-    }
-
-    private static String getPathVariableKey(Parameter param) {
-        return param.getName();
-    }
-
-    private static Object getQueryParamArg(Object[] args, Parameter param, Parameter[] parameters) {
-        return args[Arrays.asList(parameters).indexOf(param)];
-    }
-
-    private static String getQueryParamKey(Parameter param) {
-        var requestParamAnnotation = param.getAnnotation(RequestParam.class);
-        return requestParamAnnotation.value().isEmpty()
-                ? param.getName()
-                : requestParamAnnotation.value();
     }
 }
@@ -0,0 +1,156 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Table-driven execution of many calls against the same controller.
+ *
+ * <p>All calls share one proxy built from the builder configuration. They are executed either
+ * sequentially or in parallel with a bounded number of threads. Failures do not stop the batch:
+ * every call is executed and all failures are reported together in a single {@link AssertionError}.
+ *
+ * <p>Usage example:
+ *
+ * <pre>{@code
+ * List<ControllerResponse<?>> responses = controllerClientFactory.batch(MyController.class)
+ *     .call(c -> c.create(new MyRequest("a")), 201)
+ *     .call(c -> c.create(new MyRequest("b")), 201)
+ *     .parallel(8)
+ *     .execute();
+ * }</pre>
+ */
+public class ControllerClientBatch<T> {
+
+    private final T client;
+    private final List<ControllerCallSpec<T>> calls = new ArrayList<>();
+    private int parallelism = 1;
+
+    ControllerClientBatch(ControllerClientBuilder<T> builder) {
+        this.client = builder.build();
+    }
+
+    /**
+     * Adds a call that expects the given HTTP status code.
+     *
+     * @param call           the controller action to invoke
+     * @param expectedStatus the expected HTTP status code
+     * @return this {@code ControllerClientBatch} instance for chaining further configurations
+     */
+    public ControllerClientBatch<T> call(Function<T, Object> call, int expectedStatus) {
+        return call(ControllerCallSpec.of(call, expectedStatus));
+    }
+
+    /**
+     * Adds a single call spec.
+     *
+     * @param spec the call to execute
+     * @return this {@code ControllerClientBatch} instance for chaining further configurations
+     */
+    public ControllerClientBatch<T> call(ControllerCallSpec<T> spec) {
+        calls.add(spec);
+        return this;
+    }
+
+    /**
+     * Adds all given call specs, keeping their order.
+     *
+     * @param specs the calls to execute
+     * @return this {@code ControllerClientBatch} instance for chaining further configurations
+     */
+    public ControllerClientBatch<T> calls(List<ControllerCallSpec<T>> specs) {
+        calls.addAll(specs);
+        return this;
+    }
+
+    /**
+     * Executes the calls in parallel using at most the given number of threads.
+     *
+     * @param maxConcurrency the maximum number of calls in flight
+     * @return this {@code ControllerClientBatch} instance for chaining further configurations
+     */
+    public ControllerClientBatch<T> parallel(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1 but was " + maxConcurrency);
+        }
+        this.parallelism = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Executes all calls and returns their responses in the order the calls were added.
+     *
+     * @return responses of all calls
+     * @throws AssertionError if any call failed, listing every failed call
+     */
+    public List<ControllerResponse<?>> execute() {
+        var outcomes = parallelism == 1 ? executeSequentially() : executeInParallel();
+
+        var responses = new ArrayList<ControllerResponse<?>>(outcomes.size());
+        var report = new StringBuilder();
+        var failures = new ArrayList<Throwable>();
+        for (int i = 0; i < outcomes.size(); i++) {
+            var outcome = outcomes.get(i);
+            if (outcome.failure() != null) {
+                report.append("\n  call #").append(i).append(": ").append(outcome.failure());
+                failures.add(outcome.failure());
+            }
+            responses.add(outcome.response());
+        }
+
+        if (!failures.isEmpty()) {
+            var error = new AssertionError(
+                    failures.size() + " of " + outcomes.size() + " calls failed:" + report);
+            failures.forEach(error::addSuppressed);
+            throw error;
+        }
+        return responses;
+    }
+
+    private List<Outcome> executeSequentially() {
+        return calls.stream().map(this::executeCall).toList();
+    }
+
+    private List<Outcome> executeInParallel() {
+        var executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(calls.size(), 1)));
+        try {
+            var futures = new ArrayList<Future<Outcome>>(calls.size());
+            for (var spec : calls) {
+                futures.add(executor.submit(() -> executeCall(spec)));
+            }
+            var outcomes = new ArrayList<Outcome>(futures.size());
+            for (var future : futures) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch execution was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch execution failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Outcome executeCall(ControllerCallSpec<T> spec) {
+        try (var context = ControllerCallContext.open(spec.expectations(), false)) {
+            try {
+                var body = spec.call().apply(client);
+                return new Outcome(new ControllerResponse<>(context, body), null);
+            } catch (Exception | AssertionError e) {
+                // Also checked exceptions, e.g. a ServletException of an unhandled controller
+                // exception that MockMvc rethrows without declaring it
+                var response = context.hasResponse() ? new ControllerResponse<>(context) : null;
+                return new Outcome(response, e);
+            }
+        }
+    }
+
+    private record Outcome(ControllerResponse<?> response, Throwable failure) {
+    }
+}
@@ -49,15 +49,29 @@ public class ControllerClientBuilder<T> {
   private final Class<T> clazz;
   private final ObjectMapper objectMapper;
   private final MockMvc mockMvc;
+  private final ControllerEndpointIndex endpointIndex;
+  private final CallObservation observation;
     private final List<Consumer<AbstractMockHttpServletRequestBuilder<?>>> requestCustomizers = new ArrayList<>();
+  private final List<Consumer<MockHttpServletRequestBuilder>> staticRequestCustomizers =
+      new ArrayList<>();
   private final List<Function<ResultActions, ResultActions>> responseCustomizers =
       new ArrayList<>();
   private final List<Consumer<MockHttpServletResponse>> responseHandlers = new ArrayList<>();
+  private final List<ArgumentBinder> argumentBinders = new ArrayList<>();
+  private ResponseMapping responseMapping = ResponseMapping.EAGER;
+  private long spillThreshold = Long.MAX_VALUE;
 
-  ControllerClientBuilder(Class<T> clazz, ObjectMapper objectMapper, MockMvc mockMvc) {
+  ControllerClientBuilder(
+      Class<T> clazz,
+      ObjectMapper objectMapper,
+      MockMvc mockMvc,
+      ControllerEndpointIndex endpointIndex,
+      CallObservation observation) {
     this.clazz = clazz;
     this.objectMapper = objectMapper;
     this.mockMvc = mockMvc;
+    this.endpointIndex = endpointIndex;
+    this.observation = observation;
   }
 
   /**
@@ -72,6 +86,23 @@ public class ControllerClientBuilder<T> {
     return this;
   }
 
+  /**
+   * Adds a customizer whose result does not change between calls, such as an authentication
+   * header with a fixed token. Static customizers run once, when the client is built, into a
+   * template request that is merged into every call. Values set for the call itself win over the
+   * template, as with {@link MockHttpServletRequestBuilder#merge(Object)}.
+   *
+   * <p>Use it for expensive customizers, e.g. minting a token; customizers depending on the call
+   * belong in {@link #customizeRequest(Consumer)}.
+   *
+   * @param consumer a {@link Consumer} that customizes the template request
+   * @return the current instance of {@code ControllerClientBuilder} for fluent chaining
+   */
+  public ControllerClientBuilder<T> customizeRequestOnce(Consumer<MockHttpServletRequestBuilder> consumer) {
+    staticRequestCustomizers.add(consumer);
+    return this;
+  }
+
   /**
    * Adds a customizer for the response. This allows for modification or inspection of the response
    * after it is received, such as checking headers or content.
@@ -90,6 +121,52 @@ public class ControllerClientBuilder<T> {
     return this;
   }
 
+  /**
+   * Sets when the response body is mapped to the return type of the controller method. Defaults to
+   * {@link ResponseMapping#EAGER}.
+   *
+   * @param responseMapping the mapping mode
+   * @return the current instance of {@code ControllerClientBuilder} for fluent chaining
+   */
+  public ControllerClientBuilder<T> responseMapping(ResponseMapping responseMapping) {
+    this.responseMapping = responseMapping;
+    return this;
+  }
+
+  /**
+   * Spills response bodies larger than the given number of bytes to a temporary file when the
+   * controller method returns an {@link java.io.InputStream} or a {@link
+   * org.springframework.core.io.Resource}, so the returned value does not keep a copy of a large
+   * download. It does not bound the memory of the call: MockMvc buffers the whole body, and the
+   * body is copied once more before it is written. Methods returning a {@link java.nio.file.Path}
+   * always get a temporary file. Spilled streams
+   * delete their file when closed; files behind a {@code Path} or a {@link
+   * org.springframework.core.io.FileSystemResource} have to be deleted by the test.
+   *
+   * @param thresholdBytes the body size above which bodies are written to a file
+   * @return the current instance of {@code ControllerClientBuilder} for fluent chaining
+   */
+  public ControllerClientBuilder<T> spillBodiesLargerThan(long thresholdBytes) {
+    if (thresholdBytes < 0) {
+      throw new IllegalArgumentException("Threshold cannot be negative but was " + thresholdBytes);
+    }
+    this.spillThreshold = thresholdBytes;
+    return this;
+  }
+
+  /**
+   * Registers a binder for controller method parameters. Binders registered here are consulted in
+   * registration order and before the built-in ones, so they can also replace how a standard
+   * annotation is sent.
+   *
+   * @param argumentBinder the binder to register
+   * @return the current instance of {@code ControllerClientBuilder} for fluent chaining
+   */
+  public ControllerClientBuilder<T> argumentBinder(ArgumentBinder argumentBinder) {
+    argumentBinders.add(argumentBinder);
+    return this;
+  }
+
   /**
    * Sets an expectation for the HTTP status code of the response. This is a convenience method for
    * asserting the status code in the response customizer.
@@ -113,19 +190,50 @@ public class ControllerClientBuilder<T> {
    * this builder. The instance acts as a proxy for the specified controller, allowing invocation of
    * its methods as if making HTTP requests.
    *
+   * <p>The configuration is frozen into an immutable snapshot, so later changes to this builder do
+   * not affect already built proxies and a proxy can be safely shared between threads. The
+   * controller mappings are resolved and validated at this point as well.
+   *
    * @return a proxy instance of the specified controller class
+   * @throws IllegalStateException if a controller method cannot be mapped to an endpoint
    */
   public T build() {
+    return new ControllerClient<T>(clazz, mockMvc, objectMapper, snapshot(), endpointIndex)
+        .getClient();
+  }
+
+  /**
+   * Builds the client with the given response mapping, without changing this builder.
+   */
+  T build(ResponseMapping responseMapping) {
     return new ControllerClient<T>(
-            clazz,
-            mockMvc,
-            objectMapper,
-            new ArrayList<>(requestCustomizers),
-            new ArrayList<>(responseCustomizers),
-            new ArrayList<>(responseHandlers))
+            clazz, mockMvc, objectMapper, snapshot().withResponseMapping(responseMapping), endpointIndex)
         .getClient();
   }
 
+  ObjectMapper objectMapper() {
+    return objectMapper;
+  }
+
+  CallObservation observation() {
+    return observation;
+  }
+
+  /**
+   * Takes an immutable snapshot of the current configuration of this builder.
+   */
+  ControllerClientConfiguration snapshot() {
+    return new ControllerClientConfiguration(
+        requestCustomizers,
+        staticRequestCustomizers,
+        responseCustomizers,
+        responseHandlers,
+        responseMapping,
+        argumentBinders,
+        spillThreshold,
+        observation);
+  }
+
   /**
    * Convenience method that sets an expected HTTP status code and builds the {@code
    * ControllerClient} instance. This is equivalent to calling {@link #expectStatus(int)} followed
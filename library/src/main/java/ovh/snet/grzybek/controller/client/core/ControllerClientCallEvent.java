@@ -0,0 +1,123 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * JDK Flight Recorder event committed for every proxied call, so GC, lock contention and allocation
+ * samples in a recording can be attributed to endpoint calls.
+ *
+ * <p>The event is disabled by default and enabled by the {@code controller-client.jfc} settings
+ * shipped at the root of the library jar. Flight Recorder reads settings from the file system, so
+ * the file has to be extracted and passed by its path, combined with the JDK settings, e.g. {@code
+ * -XX:StartFlightRecording:settings=default,settings=/path/to/controller-client.jfc}. While it is
+ * not recorded the proxy creates no event objects.
+ */
+@Name("controllerclient.Call")
+@Label("Controller Client Call")
+@Category("Controller Client")
+@Description("Call of a controller method made through a controller client")
+@StackTrace(false)
+@Enabled(false)
+final class ControllerClientCallEvent extends Event {
+
+    private static final EventType EVENT_TYPE = eventType();
+
+    @Label("Controller")
+    Class<?> controller;
+
+    @Label("Method")
+    String method;
+
+    @Label("HTTP Method")
+    String httpMethod;
+
+    @Label("URL Template")
+    String urlTemplate;
+
+    @Label("Status")
+    int status;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Size")
+    @Description("Content-Length declared by the response, 0 if not declared")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Prepare Duration")
+    @Description("Binding of the arguments and request customizers")
+    @Timespan
+    long prepareDuration;
+
+    @Label("Perform Duration")
+    @Description("Time spent in MockMvc.perform")
+    @Timespan
+    long performDuration;
+
+    @Label("Handle Duration")
+    @Description("Expectations, response handlers and mapping of the response")
+    @Timespan
+    long handleDuration;
+
+    private transient long startNanos;
+    private transient long performEndNanos;
+
+    /**
+     * Begins the event of a call, or returns {@code null} if the event is not recorded.
+     */
+    static ControllerClientCallEvent begin(Class<?> controller, String method, ControllerEndpoint endpoint) {
+        if (EVENT_TYPE == null || !EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        var event = new ControllerClientCallEvent();
+        event.controller = controller;
+        event.method = method;
+        event.httpMethod = endpoint.httpMethod().name();
+        event.urlTemplate = endpoint.pattern();
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    void prepared() {
+        prepareDuration = System.nanoTime() - startNanos;
+    }
+
+    void performed(long elapsedNanos, MockHttpServletRequest request, MockHttpServletResponse response) {
+        performDuration = elapsedNanos;
+        performEndNanos = System.nanoTime();
+        status = response.getStatus();
+        requestBytes = Math.max(request.getContentLength(), 0);
+        // The actual content is only available as a copy of the whole body
+        responseBytes = Math.max(response.getContentLengthLong(), 0);
+    }
+
+    void finish() {
+        if (performEndNanos != 0) {
+            handleDuration = System.nanoTime() - performEndNanos;
+        }
+        commit();
+    }
+
+    private static EventType eventType() {
+        try {
+            return EventType.getEventType(ControllerClientCallEvent.class);
+        } catch (RuntimeException | LinkageError e) {
+            // Flight Recorder is not available in this JVM
+            return null;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package ovh.snet.grzybek.controller.client.core;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import org.springframework.test.web.servlet.ResultActions;
@@ -23,17 +26,36 @@ import org.springframework.test.web.servlet.ResultActions;
  *         .execute();
  * }</pre>
  *
- * Important!! Each call to Controller needs to be performed on a different instance of the Caller
- * because expectations (.andExpect()) are not resetable.
+ * <p>The caller works as a template: the builder configuration is compiled into a proxy once, when
+ * the caller is created, while the action and expectations given through {@code when} and {@code
+ * then} only apply to the next {@link #execute()} and are discarded afterwards. The same caller can
+ * therefore be reused for any number of calls. The next call is kept per thread, so a caller can
+ * also be shared by tests running in parallel, each thread configuring and executing its own call.
+ *
+ * <p>Latency budgets can be asserted in the same fluent style. The measured latency is the time
+ * spent in {@code MockMvc.perform}, so it excludes request preparation and response mapping:
+ *
+ * <pre>{@code
+ * caller.when(MyController::search)
+ *     .thenStatus(200)
+ *     .repeat(200)
+ *     .thenPercentileBelow(0.99, Duration.ofMillis(20))
+ *     .execute();
+ * }</pre>
+ *
+ * <p>When tests run with the controller-client performance Gradle plugin, repeated calls and calls
+ * with latency or allocation expectations are also written to its results, so they can be compared
+ * against a committed baseline.
  */
 public class ControllerClientCaller<T> {
 
-  private final ControllerClientBuilder<T> builder;
-  private Function<T, Object> controllerCall;
-  private Consumer<T> controllerConsumer;
+  private final T client;
+  private final boolean sqlTracking;
+  private final ThreadLocal<PendingCall<T>> pendingCall = ThreadLocal.withInitial(PendingCall::new);
 
   ControllerClientCaller(ControllerClientBuilder<T> builder) {
-    this.builder = builder;
+    this.client = builder.build();
+    this.sqlTracking = builder.observation().sqlTracking();
   }
 
   /**
@@ -45,7 +67,7 @@ public class ControllerClientCaller<T> {
    * @throws IllegalStateException if a controller action has already been defined
    */
   public ControllerClientCaller<T> when(Function<T, Object> controller) {
-    this.controllerCall = controller;
+    pendingCall.get().controllerCall = controller;
     assertOneConsumer();
     return this;
   }
@@ -59,7 +81,7 @@ public class ControllerClientCaller<T> {
    * @throws IllegalStateException if a controller action has already been defined
    */
   public ControllerClientCaller<T> when(Consumer<T> controller) {
-    this.controllerConsumer = controller;
+    pendingCall.get().controllerConsumer = controller;
     assertOneConsumer();
     return this;
   }
@@ -67,13 +89,13 @@ public class ControllerClientCaller<T> {
   /**
    * Adds a custom response assertion to be applied after the controller action is invoked. This
    * allows for detailed inspection of the response, such as checking headers, content, or status
-   * codes.
+   * codes. The assertion applies only to the next {@link #execute()}.
    *
    * @param consumer a {@link Function} that defines the response assertion
    * @return this {@code ControllerClientCaller} instance for chaining further configurations
    */
   public ControllerClientCaller<T> then(Function<ResultActions, ResultActions> consumer) {
-    builder.customizeResponse(consumer);
+    pendingCall.get().expectations.add(consumer);
     return this;
   }
 
@@ -96,27 +118,233 @@ public class ControllerClientCaller<T> {
   }
 
   /**
-   * Executes the configured controller action and returns the result. This method builds the
-   * controller client, invokes the specified action, applies any response assertions, and returns
-   * the action's result if applicable.
+   * Asserts that every execution of the controller action completes within the given budget.
+   *
+   * @param budget the maximum latency of a single call
+   * @return this {@code ControllerClientCaller} instance for chaining further configurations
+   */
+  public ControllerClientCaller<T> thenCompletesWithin(Duration budget) {
+    pendingCall.get().measured = true;
+    pendingCall.get().callExpectations.add(
+        context -> {
+          var latency = Duration.ofNanos(context.elapsedNanos());
+          if (latency.compareTo(budget) > 0) {
+            throw new AssertionError(
+                "Call took "
+                    + LatencyHistogram.format(latency)
+                    + " but was expected to complete within "
+                    + LatencyHistogram.format(budget));
+          }
+        });
+    return this;
+  }
+
+  /**
+   * Asserts that every execution of the controller action allocates at most the given number of
+   * bytes on the calling thread inside {@code MockMvc.perform}. Warm-up calls are not checked, so
+   * combine it with {@link #warmUp(int)} to keep one-off class initialization out of the budget.
+   *
+   * @param bytes the maximum number of bytes allocated by a single call
+   * @return this {@code ControllerClientCaller} instance for chaining further configurations
+   * @throws IllegalStateException if the JVM does not support thread allocation measurement
+   */
+  public ControllerClientCaller<T> thenAllocatesAtMost(long bytes) {
+    if (!ThreadAllocation.isSupported()) {
+      throw new IllegalStateException("Thread allocation measurement is not supported by this JVM");
+    }
+    pendingCall.get().measured = true;
+    pendingCall.get().callExpectations.add(
+        context -> {
+          if (context.allocatedBytes() > bytes) {
+            throw new AssertionError(
+                "Call allocated "
+                    + context.allocatedBytes()
+                    + " bytes but was expected to allocate at most "
+                    + bytes
+                    + " bytes");
+          }
+        });
+    return this;
+  }
+
+  /**
+   * Asserts that every execution of the controller action runs at most the given number of JDBC
+   * statements. On failure the statements executed more than once are listed, which points at N+1
+   * queries. Requires SQL tracking enabled with the {@code controller-client.sql.enabled=true}
+   * property.
+   *
+   * @param queries the maximum number of statements executed by a single call
+   * @return this {@code ControllerClientCaller} instance for chaining further configurations
+   * @throws IllegalStateException if SQL tracking is not enabled
+   */
+  public ControllerClientCaller<T> thenMaxQueries(int queries) {
+    if (!sqlTracking) {
+      throw new IllegalStateException(
+          "SQL tracking is not enabled, set controller-client.sql.enabled=true");
+    }
+    pendingCall.get().callExpectations.add(
+        context -> {
+          var statistics = context.sqlStatistics();
+          if (statistics.statementCount() > queries) {
+            var message =
+                new StringBuilder()
+                    .append("Call executed ")
+                    .append(statistics.statementCount())
+                    .append(" SQL statements but was expected to execute at most ")
+                    .append(queries);
+            statistics
+                .duplicatedStatements()
+                .forEach(
+                    (sql, count) -> message.append("\n  ").append(count).append("x ").append(sql));
+            throw new AssertionError(message.toString());
+          }
+        });
+    return this;
+  }
+
+  /**
+   * Executes the controller action the given number of times. Unless set with {@link
+   * #warmUp(int)}, a tenth of that number of unmeasured warm-up calls is made first. Expectations
+   * are checked on every call and {@link #execute()} returns the result of the last one.
+   *
+   * @param times the number of measured calls
+   * @return this {@code ControllerClientCaller} instance for chaining further configurations
+   */
+  public ControllerClientCaller<T> repeat(int times) {
+    if (times < 1) {
+      throw new IllegalArgumentException("Repetitions must be at least 1 but was " + times);
+    }
+    pendingCall.get().repetitions = times;
+    pendingCall.get().measured = true;
+    return this;
+  }
+
+  /**
+   * Sets the number of unmeasured calls made before the measured ones.
+   *
+   * @param times the number of warm-up calls
+   * @return this {@code ControllerClientCaller} instance for chaining further configurations
+   */
+  public ControllerClientCaller<T> warmUp(int times) {
+    if (times < 0) {
+      throw new IllegalArgumentException("Warm-up calls cannot be negative but was " + times);
+    }
+    pendingCall.get().warmUps = times;
+    return this;
+  }
+
+  /**
+   * Asserts that the given percentile of the measured latencies is below the budget. On failure the
+   * whole latency histogram is printed.
+   *
+   * @param percentile fraction between 0 and 1, e.g. {@code 0.99}
+   * @param budget the latency the percentile has to stay below
+   * @return this {@code ControllerClientCaller} instance for chaining further configurations
+   */
+  public ControllerClientCaller<T> thenPercentileBelow(double percentile, Duration budget) {
+    pendingCall.get().measured = true;
+    pendingCall.get().distributionExpectations.add(
+        histogram -> {
+          var latency = histogram.percentile(percentile);
+          if (latency.compareTo(budget) >= 0) {
+            throw new AssertionError(
+                "Latency at percentile "
+                    + percentile
+                    + " was "
+                    + LatencyHistogram.format(latency)
+                    + " but was expected to be below "
+                    + LatencyHistogram.format(budget)
+                    + "\n"
+                    + histogram);
+          }
+        });
+    return this;
+  }
+
+  /**
+   * Executes the configured controller action and returns the result. This method invokes the
+   * specified action on the prebuilt controller client, applies the response assertions, and
+   * returns the action's result if applicable. Afterwards the action and assertions are reset, so
+   * the caller is ready for the next call.
    *
    * @param <R> the type of the response
    * @return the result of the controller action, or {@code null} if the action returns void
-   * @throws IllegalStateException if both a {@link Function} and a {@link Consumer} have been
-   *     defined
+   * @throws IllegalStateException if no action or both a {@link Function} and a {@link Consumer}
+   *     have been defined
    */
   public <R> R execute() {
     assertOneConsumer();
-    if (controllerConsumer != null) {
-      controllerConsumer.accept(builder.build());
-      return null;
+    var call = pendingCall.get();
+    if (call.controllerCall == null && call.controllerConsumer == null) {
+      throw new IllegalStateException("No controller call defined");
+    }
+    try {
+      int warmUpCalls = call.warmUps != null ? call.warmUps : call.repetitions / 10;
+      for (int i = 0; i < warmUpCalls; i++) {
+        warmUp(call);
+      }
+      var histogram = new LatencyHistogram();
+      Object result = null;
+      for (int i = 0; i < call.repetitions; i++) {
+        result = invoke(call, histogram);
+      }
+      call.distributionExpectations.forEach(expectation -> expectation.accept(histogram));
+      return (R) result;
+    } finally {
+      pendingCall.remove();
+    }
+  }
+
+  private void warmUp(PendingCall<T> call) {
+    try (var context = ControllerCallContext.openWarmUp(call.expectations)) {
+      if (call.controllerConsumer != null) {
+        call.controllerConsumer.accept(client);
+      } else {
+        call.controllerCall.apply(client);
+      }
+    }
+  }
+
+  private Object invoke(PendingCall<T> call, LatencyHistogram histogram) {
+    try (var context =
+        ControllerCallContext.open(call.expectations, call.controllerConsumer != null)) {
+      if (call.measured) {
+        context.measure();
+      }
+      Object result = null;
+      if (call.controllerConsumer != null) {
+        call.controllerConsumer.accept(client);
+      } else {
+        result = call.controllerCall.apply(client);
+      }
+      histogram.record(context.elapsedNanos());
+      try {
+        call.callExpectations.forEach(expectation -> expectation.accept(context));
+      } catch (AssertionError e) {
+        ExchangeLog.attachTo(e);
+        throw e;
+      }
+      return result;
     }
-    return (R) controllerCall.apply(builder.build());
   }
 
   private void assertOneConsumer() {
-    if (controllerCall != null && controllerConsumer != null) {
+    var call = pendingCall.get();
+    if (call.controllerCall != null && call.controllerConsumer != null) {
       throw new IllegalStateException("Only one controller call can be defined");
     }
   }
+
+  /** Action and expectations of the next {@link #execute()} on the current thread. */
+  private static final class PendingCall<T> {
+
+    private final List<Function<ResultActions, ResultActions>> expectations = new ArrayList<>();
+    private final List<Consumer<ControllerCallContext>> callExpectations = new ArrayList<>();
+    private final List<Consumer<LatencyHistogram>> distributionExpectations = new ArrayList<>();
+    private Function<T, Object> controllerCall;
+    private Consumer<T> controllerConsumer;
+    private int repetitions = 1;
+    private Integer warmUps;
+    private boolean measured;
+  }
 }
@@ -0,0 +1,41 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.AbstractMockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Immutable snapshot of a {@link ControllerClientBuilder} taken at build time. Proxies only read
+ * from it, so a single proxy can be shared between threads.
+ */
+record ControllerClientConfiguration(
+        List<Consumer<AbstractMockHttpServletRequestBuilder<?>>> requestCustomizers,
+        List<Consumer<MockHttpServletRequestBuilder>> staticRequestCustomizers,
+        List<Function<ResultActions, ResultActions>> resultCustomizers,
+        List<Consumer<MockHttpServletResponse>> responseHandlers,
+        ResponseMapping responseMapping,
+        List<ArgumentBinder> argumentBinders,
+        long spillThreshold,
+        CallObservation observation) {
+
+    ControllerClientConfiguration {
+        requestCustomizers = List.copyOf(requestCustomizers);
+        staticRequestCustomizers = List.copyOf(staticRequestCustomizers);
+        resultCustomizers = List.copyOf(resultCustomizers);
+        responseHandlers = List.copyOf(responseHandlers);
+        argumentBinders = List.copyOf(argumentBinders);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given response mapping.
+     */
+    ControllerClientConfiguration withResponseMapping(ResponseMapping mapping) {
+        return new ControllerClientConfiguration(requestCustomizers, staticRequestCustomizers, resultCustomizers,
+                responseHandlers, mapping, argumentBinders, spillThreshold, observation);
+    }
+}
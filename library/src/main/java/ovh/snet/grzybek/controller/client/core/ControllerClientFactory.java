@@ -3,13 +3,24 @@ package ovh.snet.grzybek.controller.client.core;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 import tools.jackson.databind.ObjectMapper;
 
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
- * Factory for creating {@link ControllerClientBuilder} and {@link ControllerClientCaller}
- * instances. It requires a {@link ObjectMapper} bean to be present.
+ * Factory for creating {@link ControllerClientBuilder}, {@link ControllerClientCaller} and
+ * {@link ControllerClientBatch} instances. It requires a {@link ObjectMapper} bean to be present.
+ *
+ * <p>Besides {@code @RestController} classes, every method also accepts Spring HTTP interfaces
+ * annotated with {@code @HttpExchange}, {@code @GetExchange}, {@code @PostExchange} etc. Their calls
+ * go through MockMvc exactly like controller calls, so the interfaces used by production callers
+ * can be reused in controller tests.
  */
 @Service
 public class ControllerClientFactory {
@@ -19,23 +30,39 @@ public class ControllerClientFactory {
     @Autowired(required = false)
     private MockMvc mockMvc;
 
+    @Autowired(required = false)
+    private ControllerEndpointIndex endpointIndex;
+
+    @Autowired(required = false)
+    private SqlTrackingBeanPostProcessor sqlTracking;
+
+    @Autowired(required = false)
+    private TracingConfiguration tracing;
+
+    @Autowired(required = false)
+    private ExchangeLogConfiguration exchangeLog;
+
+    @Autowired(required = false)
+    private RecordingConfiguration recording;
+
+    @Autowired
     public ControllerClientFactory(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Creates a factory outside of an application context, see {@link ControllerClients#standalone(Object...)}.
+     */
+    ControllerClientFactory(ObjectMapper objectMapper, MockMvc mockMvc) {
+        this.objectMapper = objectMapper;
+        this.mockMvc = mockMvc;
+    }
+
     /**
      * Creates a new instance of {@link ControllerClient} for the given controller class that expects 2xx status.
      */
     public <T> T create(Class<T> clazz) {
-        return builder(clazz).customizeResponse(
-                resultActions -> {
-                    try {
-                        return resultActions.andExpect(status().is2xxSuccessful());
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-        ).build();
+        return builder(clazz).customizeResponse(ControllerClientFactory::expect2xx).build();
     }
 
     /**
@@ -45,7 +72,7 @@ public class ControllerClientFactory {
         if (mockMvc == null) {
             throw new IllegalStateException("MockMvc is not set");
         }
-        return new ControllerClientBuilder<>(clazz, objectMapper, mockMvc);
+        return new ControllerClientBuilder<>(clazz, objectMapper, mockMvc, endpointIndex, observation());
     }
 
     /**
@@ -75,4 +102,94 @@ public class ControllerClientFactory {
     public <T> RespondingControllerClient<T> respondingClient(ControllerClientBuilder<T> builder) {
         return new RespondingControllerClient<>(builder);
     }
+
+    /**
+     * Creates a new instance of {@link ControllerClientBatch} for the given controller class.
+     */
+    public <T> ControllerClientBatch<T> batch(Class<T> clazz) {
+        return new ControllerClientBatch<>(builder(clazz));
+    }
+
+    /**
+     * Creates a new instance of {@link ControllerClientBatch} for the given builder.
+     */
+    public <T> ControllerClientBatch<T> batch(ControllerClientBuilder<T> builder) {
+        return new ControllerClientBatch<>(builder);
+    }
+
+    /**
+     * Creates a new instance of {@link ControllerClientStress} that executes the given call on the
+     * given controller class, expecting 2xx status.
+     */
+    public <T> ControllerClientStress<T> stress(Class<T> clazz, Function<T, Object> call) {
+        return new ControllerClientStress<>(builder(clazz), ControllerCallSpec.of(call)
+                .then(ControllerClientFactory::expect2xx));
+    }
+
+    /**
+     * Creates a new instance of {@link ControllerClientStress} for the given builder and call spec.
+     */
+    public <T> ControllerClientStress<T> stress(ControllerClientBuilder<T> builder, ControllerCallSpec<T> call) {
+        return new ControllerClientStress<>(builder, call);
+    }
+
+    /**
+     * Creates a new instance of {@link ControllerClientPayloadScaling} that calls the given controller
+     * class with payloads created by the generator, expecting 2xx status.
+     */
+    public <T, P> ControllerClientPayloadScaling<T, P> payloadScaling(
+            Class<T> clazz, BiFunction<T, P, Object> call, IntFunction<P> generator) {
+        return payloadScaling(builder(clazz).customizeResponse(ControllerClientFactory::expect2xx), call, generator);
+    }
+
+    /**
+     * Creates a new instance of {@link ControllerClientPayloadScaling} for the given builder.
+     */
+    public <T, P> ControllerClientPayloadScaling<T, P> payloadScaling(
+            ControllerClientBuilder<T> builder, BiFunction<T, P, Object> call, IntFunction<P> generator) {
+        return new ControllerClientPayloadScaling<>(builder, call, generator);
+    }
+
+    /**
+     * Creates a new instance of {@link ControllerClientWarmUp} that executes the given calls on the
+     * given controller class.
+     */
+    @SafeVarargs
+    public final <T> ControllerClientWarmUp<T> warmUp(Class<T> clazz, Function<T, Object>... calls) {
+        return new ControllerClientWarmUp<>(builder(clazz), List.of(calls));
+    }
+
+    /**
+     * Creates a new instance of {@link ControllerClientPagination} that walks the pages returned by
+     * the given controller class, expecting 2xx status.
+     */
+    public <T, E> ControllerClientPagination<T, E> paginate(
+            Class<T> clazz, Class<E> elementType, ControllerClientPagination.PageCall<T> call) {
+        return paginate(builder(clazz).customizeResponse(ControllerClientFactory::expect2xx), elementType, call);
+    }
+
+    /**
+     * Creates a new instance of {@link ControllerClientPagination} for the given builder. Its response
+     * mapping is set to {@link ResponseMapping#STATUS_ONLY}, as pages are read from the raw response.
+     */
+    public <T, E> ControllerClientPagination<T, E> paginate(
+            ControllerClientBuilder<T> builder, Class<E> elementType, ControllerClientPagination.PageCall<T> call) {
+        return new ControllerClientPagination<>(builder, elementType, call);
+    }
+
+    private CallObservation observation() {
+        return new CallObservation(
+                sqlTracking != null,
+                tracing != null ? tracing.exporter() : null,
+                exchangeLog != null ? exchangeLog.capacity() : ExchangeLog.DEFAULT_CAPACITY,
+                recording != null ? recording.corpus() : null);
+    }
+
+    private static ResultActions expect2xx(ResultActions resultActions) {
+        try {
+            return resultActions.andExpect(status().is2xxSuccessful());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
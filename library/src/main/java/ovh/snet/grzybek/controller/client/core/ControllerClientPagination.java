@@ -0,0 +1,270 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks the pages of a paginated endpoint lazily, fetching the next page only when the elements of
+ * the current one are used up, so only one page is held in memory at a time.
+ *
+ * <p>The call receives the page number and size, so it works with {@code Pageable} parameters as
+ * well as with {@code page}/{@code size} request parameters. Responses may be a Spring Data {@code
+ * Page} or {@code Slice}, a {@code PagedModel}, or a plain JSON array. Walking stops at an empty
+ * page, at a page marked as the last one, through {@code last} or {@code totalPages}, and at a page
+ * whose {@code number} is not the requested one, which means the endpoint ignored the request.
+ * The builder the pagination is created from is not changed.
+ *
+ * <p>Usage example:
+ *
+ * <pre>{@code
+ * try (Stream<Order> orders = controllerClientFactory.paginate(OrderController.class, Order.class,
+ *                 (client, page, size) -> client.list(PageRequest.of(page, size)))
+ *         .pageSize(500)
+ *         .prefetch()
+ *         .stream()) {
+ *     assertThat(orders.filter(Order::isPaid).count()).isEqualTo(12_000);
+ * }
+ * }</pre>
+ *
+ * <p>With {@link #prefetch()} the next page is fetched on a background thread while the current one
+ * is consumed. Thread-bound state of the test, such as a security context, is not visible to that
+ * thread.
+ *
+ * @param <E> the type of the page elements
+ */
+public class ControllerClientPagination<T, E> {
+
+    private final T client;
+    private final ObjectMapper objectMapper;
+    private final Class<E> elementType;
+    private final PageCall<T> call;
+    private int firstPage;
+    private int pageSize = 20;
+    private boolean prefetch;
+
+    /**
+     * Call of a paginated controller method, made through the client it is given.
+     */
+    @FunctionalInterface
+    public interface PageCall<T> {
+
+        /**
+         * @param page the zero-based page number
+         * @param size the page size
+         */
+        Object call(T client, int page, int size);
+    }
+
+    private record Page<E>(List<E> elements, boolean last) {
+    }
+
+    ControllerClientPagination(ControllerClientBuilder<T> builder, Class<E> elementType, PageCall<T> call) {
+        // Pages are read from the raw response, Page is an interface the proxy cannot map to
+        this.client = builder.build(ResponseMapping.STATUS_ONLY);
+        this.objectMapper = builder.objectMapper();
+        this.elementType = elementType;
+        this.call = call;
+    }
+
+    /**
+     * Sets the number of elements requested per page. Defaults to 20.
+     *
+     * @return this {@code ControllerClientPagination} instance for chaining further configurations
+     */
+    public ControllerClientPagination<T, E> pageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1 but was " + size);
+        }
+        this.pageSize = size;
+        return this;
+    }
+
+    /**
+     * Sets the zero-based number of the first page. Defaults to 0.
+     *
+     * @return this {@code ControllerClientPagination} instance for chaining further configurations
+     */
+    public ControllerClientPagination<T, E> firstPage(int page) {
+        if (page < 0) {
+            throw new IllegalArgumentException("First page cannot be negative but was " + page);
+        }
+        this.firstPage = page;
+        return this;
+    }
+
+    /**
+     * Fetches the next page on a background thread while the current one is consumed.
+     *
+     * @return this {@code ControllerClientPagination} instance for chaining further configurations
+     */
+    public ControllerClientPagination<T, E> prefetch() {
+        this.prefetch = true;
+        return this;
+    }
+
+    /**
+     * Returns an iterator over the elements of all pages. Pages are fetched when the iterator
+     * reaches them. An iterator that is not used up should be closed when prefetching, to stop the
+     * background thread.
+     */
+    public PageIterator iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * Returns a sequential stream over the elements of all pages. Pages are fetched when the stream
+     * reaches them; closing the stream stops prefetching.
+     */
+    public Stream<E> stream() {
+        var iterator = iterator();
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    private Page<E> fetch(int page) {
+        try (var context = ControllerCallContext.open()) {
+            call.call(client, page, pageSize);
+            if (!context.hasResponse()) {
+                throw new IllegalStateException(
+                        "The page call made no call through the client it was given for page " + page);
+            }
+            return parse(page, context.response().getContentAsString());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Page<E> parse(int page, String body) {
+        var root = objectMapper.readTree(body);
+        JsonNode content;
+        boolean last;
+        if (root.isArray()) {
+            content = root;
+            last = false;
+        } else if (root.path("content").isArray()) {
+            content = root.get("content");
+            // PagedModel nests the page metadata, Page and Slice serialize it next to the content
+            var metadata = root.path("page").isObject() ? root.get("page") : root;
+            if (metadata.has("number") && metadata.path("number").asInt() != page) {
+                // The endpoint ignored the requested page, walking on would never end
+                return new Page<>(List.of(), true);
+            }
+            last = root.path("last").asBoolean(false)
+                    || (metadata.has("totalPages")
+                    && metadata.path("number").asInt() + 1 >= metadata.path("totalPages").asInt());
+        } else {
+            throw new IllegalStateException("Expected a page with a content array or a JSON array but got " + body);
+        }
+
+        var elements = new ArrayList<E>(content.size());
+        for (var element : content) {
+            elements.add(objectMapper.treeToValue(element, elementType));
+        }
+        return new Page<>(elements, last);
+    }
+
+    /**
+     * Iterator over the elements of all pages.
+     */
+    public final class PageIterator implements Iterator<E>, AutoCloseable {
+
+        private Iterator<E> current = Collections.emptyIterator();
+        private int nextPage = firstPage;
+        private boolean exhausted;
+        private ExecutorService executor;
+        private Future<Page<E>> prefetched;
+
+        private PageIterator() {
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (exhausted) {
+                    return false;
+                }
+                var page = nextPage();
+                current = page.elements().iterator();
+                if (page.last() || page.elements().isEmpty()) {
+                    exhausted = true;
+                    close();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        /**
+         * Stops prefetching. Elements of the pages fetched so far can still be read.
+         */
+        @Override
+        public void close() {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+                prefetched = null;
+            }
+        }
+
+        private Page<E> nextPage() {
+            var page = prefetched != null ? await(prefetched) : fetch(nextPage);
+            nextPage++;
+            prefetched = null;
+            if (prefetch && !page.last() && !page.elements().isEmpty()) {
+                int pageNumber = nextPage;
+                prefetched = executor().submit(() -> fetch(pageNumber));
+            }
+            return page;
+        }
+
+        private ExecutorService executor() {
+            if (executor == null) {
+                executor = Executors.newSingleThreadExecutor(runnable -> {
+                    var thread = new Thread(runnable, "controller-client-prefetch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return executor;
+        }
+
+        private Page<E> await(Future<Page<E>> page) {
+            try {
+                return page.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while fetching page " + nextPage, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                } else if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Failed to fetch page " + nextPage, e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+/**
+ * Calls the same endpoint with geometrically growing payloads and fits how latency and allocation
+ * grow with the payload size.
+ *
+ * <p>The payload, e.g. the collection passed as {@code @RequestBody} or {@code @RequestParam}, is
+ * created by a generator for every size and sent through the regular argument bindings. Generating
+ * and serializing it happens before the measured {@code MockMvc.perform}, so only the server side
+ * is measured. Quadratic loops that only hurt with large batches show up as a growth exponent close
+ * to 2.
+ *
+ * <p>Usage example:
+ *
+ * <pre>{@code
+ * controllerClientFactory.payloadScaling(MyController.class,
+ *         MyController::importItems,
+ *         size -> IntStream.range(0, size).mapToObj(Item::new).toList())
+ *     .sizes(100, 25_600)
+ *     .thenNotSuperLinear()
+ *     .execute();
+ * }</pre>
+ *
+ * @param <P> the type of the payload
+ */
+public class ControllerClientPayloadScaling<T, P> {
+
+    /**
+     * Exponent above which growth counts as super-linear, halfway between linear and quadratic.
+     */
+    private static final double SUPER_LINEAR_EXPONENT = 1.5;
+
+    private final T client;
+    private final BiFunction<T, P, Object> call;
+    private final IntFunction<P> generator;
+    private int minSize = 16;
+    private int maxSize = 16_384;
+    private int repetitions = 5;
+    private int warmUps = 20;
+    private Double maxLatencyExponent;
+    private Double maxAllocationExponent;
+
+    ControllerClientPayloadScaling(ControllerClientBuilder<T> builder, BiFunction<T, P, Object> call,
+                                   IntFunction<P> generator) {
+        this.client = builder.build();
+        this.call = call;
+        this.generator = generator;
+    }
+
+    /**
+     * Sets the smallest and largest payload size. Sizes double from {@code minSize} up to {@code
+     * maxSize}, which is always measured as the last size. Defaults to 16 and 16384.
+     *
+     * @return this {@code ControllerClientPayloadScaling} instance for chaining further configurations
+     */
+    public ControllerClientPayloadScaling<T, P> sizes(int minSize, int maxSize) {
+        if (minSize < 1 || maxSize < minSize * 8) {
+            throw new IllegalArgumentException(
+                    "Sizes must start at 1 or more and span at least a factor of 8 but were " + minSize + ".." + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of measured calls per size, of which the median is used. Defaults to 5.
+     *
+     * @return this {@code ControllerClientPayloadScaling} instance for chaining further configurations
+     */
+    public ControllerClientPayloadScaling<T, P> repeat(int times) {
+        if (times < 1) {
+            throw new IllegalArgumentException("Repetitions must be at least 1 but was " + times);
+        }
+        this.repetitions = times;
+        return this;
+    }
+
+    /**
+     * Sets the number of unmeasured calls with the smallest payload made before measuring. Defaults
+     * to 20.
+     *
+     * @return this {@code ControllerClientPayloadScaling} instance for chaining further configurations
+     */
+    public ControllerClientPayloadScaling<T, P> warmUp(int times) {
+        if (times < 0) {
+            throw new IllegalArgumentException("Warm-up calls cannot be negative but was " + times);
+        }
+        this.warmUps = times;
+        return this;
+    }
+
+    /**
+     * Asserts that the fitted latency growth exponent is at most the given value.
+     *
+     * @return this {@code ControllerClientPayloadScaling} instance for chaining further configurations
+     */
+    public ControllerClientPayloadScaling<T, P> thenLatencyExponentAtMost(double exponent) {
+        this.maxLatencyExponent = exponent;
+        return this;
+    }
+
+    /**
+     * Asserts that the fitted allocation growth exponent is at most the given value.
+     *
+     * @return this {@code ControllerClientPayloadScaling} instance for chaining further configurations
+     * @throws IllegalStateException if the JVM does not support thread allocation measurement
+     */
+    public ControllerClientPayloadScaling<T, P> thenAllocationExponentAtMost(double exponent) {
+        if (!ThreadAllocation.isSupported()) {
+            throw new IllegalStateException("Thread allocation measurement is not supported by this JVM");
+        }
+        this.maxAllocationExponent = exponent;
+        return this;
+    }
+
+    /**
+     * Asserts that neither latency nor, when it can be measured, allocation grow super-linearly with
+     * the payload size.
+     *
+     * @return this {@code ControllerClientPayloadScaling} instance for chaining further configurations
+     */
+    public ControllerClientPayloadScaling<T, P> thenNotSuperLinear() {
+        this.maxLatencyExponent = SUPER_LINEAR_EXPONENT;
+        if (ThreadAllocation.isSupported()) {
+            this.maxAllocationExponent = SUPER_LINEAR_EXPONENT;
+        }
+        return this;
+    }
+
+    /**
+     * Measures all sizes and returns the result.
+     *
+     * @throws AssertionError if a call fails or a growth expectation is not met
+     */
+    public PayloadScaling execute() {
+        var smallest = generator.apply(minSize);
+        for (int i = 0; i < warmUps; i++) {
+            warmUp(smallest);
+        }
+
+        var points = new ArrayList<PayloadScaling.Point>();
+        for (int size : sizes()) {
+            points.add(measure(size));
+        }
+
+        var scaling = new PayloadScaling(points);
+        check("Latency", scaling.latencyExponent(), maxLatencyExponent, scaling);
+        check("Allocation", scaling.allocationExponent(), maxAllocationExponent, scaling);
+        return scaling;
+    }
+
+    private List<Integer> sizes() {
+        var sizes = new ArrayList<Integer>();
+        for (long size = minSize; size < maxSize; size *= 2) {
+            sizes.add((int) size);
+        }
+        sizes.add(maxSize);
+        return sizes;
+    }
+
+    private PayloadScaling.Point measure(int size) {
+        var payload = generator.apply(size);
+        // The first call with a new size may still resize caches or buffers
+        warmUp(payload);
+
+        var latencies = new long[repetitions];
+        var allocations = new long[repetitions];
+        for (int i = 0; i < repetitions; i++) {
+            var context = invoke(payload);
+            latencies[i] = context.elapsedNanos();
+            allocations[i] = context.allocatedBytes();
+        }
+        return new PayloadScaling.Point(size, Duration.ofNanos(median(latencies)), median(allocations));
+    }
+
+    private void warmUp(P payload) {
+        try (var context = ControllerCallContext.openWarmUp(List.of())) {
+            call.apply(client, payload);
+        }
+    }
+
+    private ControllerCallContext invoke(P payload) {
+        try (var context = ControllerCallContext.open(List.of(), false).measure().synthetic()) {
+            call.apply(client, payload);
+            return context;
+        }
+    }
+
+    private static long median(long[] values) {
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    private static void check(String name, double exponent, Double maxExponent, PayloadScaling scaling) {
+        if (maxExponent != null && exponent > maxExponent) {
+            throw new AssertionError(String.format(Locale.ROOT,
+                    "%s grows with size^%.2f but was expected to grow at most with size^%.2f%n%s",
+                    name, exponent, maxExponent, scaling));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Executes the same call from 1, 2, 4 … N threads and reports how throughput scales.
+ *
+ * <p>At every level all threads are released together by a start latch and make the same number of
+ * calls. Lock contention in controllers and services, e.g. synchronized caches or shared
+ * formatters, shows up as an efficiency well below linear scaling. Measured latencies are the time
+ * spent in {@code MockMvc.perform}, like in {@link ControllerClientCaller}. In the performance
+ * results they are kept per level, e.g. as {@code MyController#search@threads=8}, apart from the
+ * latencies of single calls.
+ *
+ * <p>Usage example:
+ *
+ * <pre>{@code
+ * ScalingCurve curve = controllerClientFactory.stress(MyController.class, c -> c.search("term"))
+ *     .threads(8)
+ *     .callsPerThread(200)
+ *     .thenEfficiencyAtLeast(0.5)
+ *     .execute();
+ * }</pre>
+ */
+public class ControllerClientStress<T> {
+
+    private final T client;
+    private final ControllerCallSpec<T> call;
+    private int maxThreads = Runtime.getRuntime().availableProcessors();
+    private int callsPerThread = 100;
+    private Integer warmUps;
+    private Double minEfficiency;
+
+    ControllerClientStress(ControllerClientBuilder<T> builder, ControllerCallSpec<T> call) {
+        this.client = builder.build();
+        this.call = call;
+    }
+
+    /**
+     * Sets the highest thread count. Levels double from 1 up to this number, which is always
+     * measured as the last level. Defaults to the number of available processors.
+     *
+     * @param maxThreads the highest number of concurrent threads
+     * @return this {@code ControllerClientStress} instance for chaining further configurations
+     */
+    public ControllerClientStress<T> threads(int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1 but was " + maxThreads);
+        }
+        this.maxThreads = maxThreads;
+        return this;
+    }
+
+    /**
+     * Sets the number of calls every thread makes at every level. Defaults to 100.
+     *
+     * @param calls the number of calls per thread
+     * @return this {@code ControllerClientStress} instance for chaining further configurations
+     */
+    public ControllerClientStress<T> callsPerThread(int calls) {
+        if (calls < 1) {
+            throw new IllegalArgumentException("Calls per thread must be at least 1 but was " + calls);
+        }
+        this.callsPerThread = calls;
+        return this;
+    }
+
+    /**
+     * Sets the number of unmeasured single-threaded calls made before the first level. Defaults to
+     * the number of calls per thread.
+     *
+     * @param times the number of warm-up calls
+     * @return this {@code ControllerClientStress} instance for chaining further configurations
+     */
+    public ControllerClientStress<T> warmUp(int times) {
+        if (times < 0) {
+            throw new IllegalArgumentException("Warm-up calls cannot be negative but was " + times);
+        }
+        this.warmUps = times;
+        return this;
+    }
+
+    /**
+     * Asserts that every level reaches at least the given fraction of linear scaling. On failure the
+     * whole scaling curve is printed.
+     *
+     * @param efficiency fraction between 0 and 1, e.g. {@code 0.5}
+     * @return this {@code ControllerClientStress} instance for chaining further configurations
+     */
+    public ControllerClientStress<T> thenEfficiencyAtLeast(double efficiency) {
+        this.minEfficiency = efficiency;
+        return this;
+    }
+
+    /**
+     * Measures all levels and returns the scaling curve.
+     *
+     * @throws AssertionError if a call fails or the efficiency expectation is not met
+     */
+    public ScalingCurve execute() {
+        int warmUpCalls = warmUps != null ? warmUps : callsPerThread;
+        for (int i = 0; i < warmUpCalls; i++) {
+            try (var context = ControllerCallContext.openWarmUp(call.expectations())) {
+                call.call().apply(client);
+            }
+        }
+
+        var levels = new ArrayList<ScalingCurve.Level>();
+        double baseline = 0;
+        for (int threads : threadCounts()) {
+            var level = measure(threads, baseline);
+            if (threads == 1) {
+                baseline = level.throughput();
+            }
+            levels.add(level);
+        }
+
+        var curve = new ScalingCurve(levels);
+        if (minEfficiency != null && curve.minEfficiency() < minEfficiency) {
+            throw new AssertionError(String.format(Locale.ROOT,
+                    "Scaling efficiency dropped to %.0f%% but was expected to stay at least %.0f%%%n%s",
+                    curve.minEfficiency() * 100, minEfficiency * 100, curve));
+        }
+        return curve;
+    }
+
+    private List<Integer> threadCounts() {
+        var counts = new ArrayList<Integer>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(maxThreads);
+        return counts;
+    }
+
+    private ScalingCurve.Level measure(int threads, double baseline) {
+        // Latencies under contention are not comparable with those of single calls
+        var variant = "threads=" + threads;
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var ready = new CountDownLatch(threads);
+            var start = new CountDownLatch(1);
+            var futures = new ArrayList<Future<LatencyHistogram>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    var histogram = new LatencyHistogram();
+                    ready.countDown();
+                    start.await();
+                    for (int call = 0; call < callsPerThread; call++) {
+                        invoke(histogram, variant);
+                    }
+                    return histogram;
+                }));
+            }
+
+            ready.await();
+            long startTime = System.nanoTime();
+            start.countDown();
+            var latencies = new LatencyHistogram();
+            for (var future : futures) {
+                latencies.recordAll(future.get());
+            }
+            var wallTime = Duration.ofNanos(System.nanoTime() - startTime);
+
+            double throughput = latencies.count() / (wallTime.toNanos() / 1_000_000_000.0);
+            // The single-thread level has no baseline yet and is the baseline itself
+            double efficiency = baseline > 0 ? throughput / (threads * baseline) : 1.0;
+            return new ScalingCurve.Level(threads, wallTime, throughput, latencies, efficiency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while measuring " + threads + " threads", e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Call failed with " + threads + " threads: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void invoke(LatencyHistogram histogram, String variant) {
+        try (var context = ControllerCallContext.open(call.expectations(), false).measure(variant).synthetic()) {
+            call.call().apply(client);
+            histogram.record(context.elapsedNanos());
+        }
+    }
+}
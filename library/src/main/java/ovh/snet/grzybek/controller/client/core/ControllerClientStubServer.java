@@ -0,0 +1,155 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP server on localhost answering requests with the responses recorded in an {@link
+ * ExchangeCorpus}, so integration tests of other services can run against the exchanges verified
+ * by this service's own tests instead of booting it.
+ *
+ * <p>A request is answered when method, query and body hash are equal to a recorded exchange and
+ * its path matches the recorded path template; an exchange recorded with the very same path is
+ * preferred. Requests without a recorded exchange get a {@code 404} naming the request.
+ *
+ * <p>Usage example:
+ *
+ * <pre>{@code
+ * try (var stub = ControllerClientStubServer.start(Path.of("build/exchanges"))) {
+ *     var orders = new OrdersClient(stub.baseUri());
+ *     assertThat(orders.get(42).status()).isEqualTo("SHIPPED");
+ * }
+ * }</pre>
+ */
+public final class ControllerClientStubServer implements AutoCloseable {
+
+    /**
+     * Headers computed by the server for the body it sends.
+     */
+    private static final Set<String> SKIPPED_HEADERS = Set.of("content-length", "transfer-encoding");
+
+    private final ExchangeCorpus corpus;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private ControllerClientStubServer(ExchangeCorpus corpus, int port) throws IOException {
+        this.corpus = corpus;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "controller-client-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Starts a server on a free port serving the corpus recorded into the given directory.
+     *
+     * @throws IllegalArgumentException if the directory contains no corpus
+     */
+    public static ControllerClientStubServer start(Path corpus) {
+        return start(corpus, 0);
+    }
+
+    /**
+     * Starts a server on the given port, {@code 0} for a free one, serving the corpus recorded into
+     * the given directory.
+     *
+     * @throws IllegalArgumentException if the directory contains no corpus
+     */
+    public static ControllerClientStubServer start(Path corpus, int port) {
+        try {
+            return new ControllerClientStubServer(ExchangeCorpus.load(corpus), port);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start stub server on port " + port, e);
+        }
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the URI requests should be sent to, e.g. {@code http://127.0.0.1:53124}.
+     */
+    public URI baseUri() {
+        return URI.create("http://" + server.getAddress().getAddress().getHostAddress() + ":" + port());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var method = exchange.getRequestMethod();
+            var path = exchange.getRequestURI().getRawPath();
+            var body = exchange.getRequestBody().readAllBytes();
+            var contentType = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+
+            var parameters = UriComponentsBuilder.fromUri(exchange.getRequestURI()).build().getQueryParams();
+            var bodyHash = ExchangeCorpus.bodyHash(body);
+            if (ExchangeCorpus.isForm(contentType)) {
+                var form = UriComponentsBuilder.newInstance()
+                        .query(new String(body, StandardCharsets.UTF_8))
+                        .build()
+                        .getQueryParams();
+                parameters = new LinkedMultiValueMap<>(parameters);
+                parameters.addAll(form);
+                bodyHash = "";
+            }
+            var query = ExchangeCorpus.query(decode(parameters));
+
+            var entry = corpus.find(method, path, query, bodyHash);
+            if (entry == null) {
+                var message = ("No recorded exchange for " + method + " " + path
+                        + (query.isEmpty() ? "" : "?" + query)
+                        + (bodyHash.isEmpty() ? "" : " with body " + bodyHash)).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "text/plain;charset=UTF-8");
+                exchange.sendResponseHeaders(404, message.length);
+                exchange.getResponseBody().write(message);
+                return;
+            }
+
+            var response = corpus.response(entry);
+            response.headers().forEach((name, values) -> {
+                if (!SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    exchange.getResponseHeaders().put(name, values);
+                }
+            });
+            var content = response.body() != null ? response.body() : new byte[0];
+            exchange.sendResponseHeaders(response.status(), content.length == 0 ? -1 : content.length);
+            exchange.getResponseBody().write(content);
+        }
+    }
+
+    private static MultiValueMap<String, String> decode(MultiValueMap<String, String> parameters) {
+        var decoded = new LinkedMultiValueMap<String, String>();
+        parameters.forEach((name, values) -> values.forEach(value -> decoded.add(
+                URLDecoder.decode(name, StandardCharsets.UTF_8),
+                value == null ? "" : URLDecoder.decode(value, StandardCharsets.UTF_8))));
+        return decoded;
+    }
+}
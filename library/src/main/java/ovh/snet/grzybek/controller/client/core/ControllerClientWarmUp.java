@@ -0,0 +1,123 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Warms up controller endpoints before timing-sensitive tests.
+ *
+ * <p>The first calls of an endpoint include class loading, proxy generation, serializer
+ * construction and JIT compilation. Executing the calls upfront keeps that cost out of latency
+ * assertions. Warm-up calls have no expectations and their measurements are discarded. They are not
+ * recorded by the exchange log, the corpus, the test map, traces or flight recordings.
+ *
+ * <p>Usage example:
+ *
+ * <pre>{@code
+ * controllerClientFactory.warmUp(MyController.class, c -> c.search("a"), c -> c.details(1))
+ *     .untilStable()
+ *     .execute();
+ * }</pre>
+ */
+public class ControllerClientWarmUp<T> {
+
+    private static final int ROUND_SIZE = 20;
+    private static final int STABLE_ROUNDS = 3;
+
+    private final T client;
+    private final List<Function<T, Object>> calls;
+    private int iterations = 1000;
+    private double tolerance = -1;
+
+    ControllerClientWarmUp(ControllerClientBuilder<T> builder, List<Function<T, Object>> calls) {
+        if (calls.isEmpty()) {
+            throw new IllegalArgumentException("At least one warm-up call is required");
+        }
+        this.client = builder.build();
+        this.calls = List.copyOf(calls);
+    }
+
+    /**
+     * Sets the number of times all calls are executed, or the upper bound when warming up until
+     * stable. Defaults to 1000.
+     *
+     * @param iterations the number of iterations
+     * @return this {@code ControllerClientWarmUp} instance for chaining further configurations
+     */
+    public ControllerClientWarmUp<T> iterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be at least 1 but was " + iterations);
+        }
+        this.iterations = iterations;
+        return this;
+    }
+
+    /**
+     * Stops as soon as the median latency changes by at most 5% between consecutive rounds.
+     *
+     * @return this {@code ControllerClientWarmUp} instance for chaining further configurations
+     */
+    public ControllerClientWarmUp<T> untilStable() {
+        return untilStable(0.05);
+    }
+
+    /**
+     * Stops as soon as the median latency of a round of calls changes by at most the given fraction
+     * for several consecutive rounds, or after the configured number of iterations.
+     *
+     * @param tolerance the relative change of the median latency considered stable, e.g. {@code 0.05}
+     * @return this {@code ControllerClientWarmUp} instance for chaining further configurations
+     */
+    public ControllerClientWarmUp<T> untilStable(double tolerance) {
+        if (tolerance <= 0) {
+            throw new IllegalArgumentException("Tolerance must be positive but was " + tolerance);
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Executes the warm-up.
+     *
+     * @return the number of iterations executed
+     */
+    public int execute() {
+        var round = new long[ROUND_SIZE];
+        long previousMedian = -1;
+        int stableRounds = 0;
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            round[iteration % ROUND_SIZE] = executeIteration();
+            if (tolerance < 0 || iteration % ROUND_SIZE != ROUND_SIZE - 1) {
+                continue;
+            }
+
+            var median = median(round);
+            if (previousMedian > 0 && Math.abs(median - previousMedian) <= tolerance * previousMedian) {
+                if (++stableRounds == STABLE_ROUNDS) {
+                    return iteration + 1;
+                }
+            } else {
+                stableRounds = 0;
+            }
+            previousMedian = median;
+        }
+        return iterations;
+    }
+
+    private long executeIteration() {
+        try (var context = ControllerCallContext.openWarmUp(List.of())) {
+            for (var call : calls) {
+                call.apply(client);
+            }
+            return context.elapsedNanos();
+        }
+    }
+
+    private static long median(long[] round) {
+        var sorted = round.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
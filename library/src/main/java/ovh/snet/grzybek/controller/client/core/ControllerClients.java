@@ -0,0 +1,28 @@
+package ovh.snet.grzybek.controller.client.core;
+
+/**
+ * Static entry points for using controller clients without a Spring application context.
+ */
+public final class ControllerClients {
+
+    private ControllerClients() {
+    }
+
+    /**
+     * Starts a standalone setup for the given controller instances, backed by
+     * {@code MockMvcBuilders.standaloneSetup}. No application context is started, so the
+     * controllers and their dependencies have to be created by the test.
+     *
+     * <pre>{@code
+     * var client = ControllerClients.standalone(new MyController(service))
+     *     .controllerAdvice(new MyExceptionHandler())
+     *     .create(MyController.class);
+     * }</pre>
+     *
+     * @param controllers the controller instances to register
+     * @return the setup, which creates clients like {@link ControllerClientFactory}
+     */
+    public static StandaloneControllerClients standalone(Object... controllers) {
+        return new StandaloneControllerClients(controllers);
+    }
+}
@@ -0,0 +1,115 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.service.annotation.HttpExchange;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolved mapping of a single controller method.
+ *
+ * @param pattern       the full URL pattern, including class-level and configured path prefixes
+ * @param httpMethod    the HTTP method used to call the endpoint
+ * @param consumes      the media types the endpoint consumes, empty if not restricted
+ * @param produces      the media types the endpoint produces, empty if not restricted
+ * @param handlerMethod the handler method registered in the application context, or {@code null} if
+ *                      the mapping was resolved from annotations only
+ */
+record ControllerEndpoint(String pattern, HttpMethod httpMethod, Set<MediaType> consumes,
+                          Set<MediaType> produces, HandlerMethod handlerMethod) {
+
+    ControllerEndpoint {
+        consumes = Set.copyOf(consumes);
+        produces = Set.copyOf(produces);
+    }
+
+    /**
+     * Creates the endpoint from a mapping registered in a {@code RequestMappingHandlerMapping}.
+     */
+    static ControllerEndpoint of(RequestMappingInfo info, HandlerMethod handlerMethod) {
+        var patterns = info.getPatternValues();
+        var methods = info.getMethodsCondition().getMethods();
+        return new ControllerEndpoint(
+                patterns.isEmpty() ? "" : patterns.iterator().next(),
+                methods.isEmpty() ? HttpMethod.GET : methods.iterator().next().asHttpMethod(),
+                info.getConsumesCondition().getConsumableMediaTypes(),
+                info.getProducesCondition().getProducibleMediaTypes(),
+                handlerMethod);
+    }
+
+    /**
+     * Resolves the endpoints of a controller from its {@link RequestMapping} annotations. Used for
+     * controllers that are not registered in the application context.
+     */
+    static Map<Method, ControllerEndpoint> fromAnnotations(Class<?> clazz) {
+        var classMapping = AnnotatedElementUtils.findMergedAnnotation(clazz, RequestMapping.class);
+        var basePath = classMapping != null && classMapping.path().length > 0 ? classMapping.path()[0] : "";
+
+        Map<Method, RequestMapping> mappings = MethodIntrospector.selectMethods(clazz,
+                (MethodIntrospector.MetadataLookup<RequestMapping>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class));
+
+        var result = new LinkedHashMap<Method, ControllerEndpoint>();
+        mappings.forEach((method, mapping) -> result.put(method, new ControllerEndpoint(
+                basePath + (mapping.path().length > 0 ? mapping.path()[0] : ""),
+                mapping.method().length > 0 ? mapping.method()[0].asHttpMethod() : RequestMethod.GET.asHttpMethod(),
+                mediaTypes(mapping.consumes(), classMapping != null ? classMapping.consumes() : new String[0]),
+                mediaTypes(mapping.produces(), classMapping != null ? classMapping.produces() : new String[0]),
+                null)));
+        return result;
+    }
+
+    /**
+     * Resolves the endpoints of a Spring HTTP interface from its {@link HttpExchange} annotations.
+     * The type-level URL is prepended to the method-level one, as {@code HttpServiceProxyFactory}
+     * does.
+     */
+    static Map<Method, ControllerEndpoint> fromHttpExchange(Class<?> clazz) {
+        var typeExchange = AnnotatedElementUtils.findMergedAnnotation(clazz, HttpExchange.class);
+        var basePath = typeExchange != null ? typeExchange.url() : "";
+
+        Map<Method, HttpExchange> exchanges = MethodIntrospector.selectMethods(clazz,
+                (MethodIntrospector.MetadataLookup<HttpExchange>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, HttpExchange.class));
+
+        var result = new LinkedHashMap<Method, ControllerEndpoint>();
+        exchanges.forEach((method, exchange) -> {
+            var httpMethod = !exchange.method().isEmpty() ? exchange.method()
+                    : typeExchange != null && !typeExchange.method().isEmpty() ? typeExchange.method()
+                    : HttpMethod.GET.name();
+            var contentType = !exchange.contentType().isEmpty() ? exchange.contentType()
+                    : typeExchange != null ? typeExchange.contentType() : "";
+            result.put(method, new ControllerEndpoint(
+                    joinPaths(basePath, exchange.url()),
+                    HttpMethod.valueOf(httpMethod),
+                    contentType.isEmpty() ? Set.of() : Set.of(MediaType.parseMediaType(contentType)),
+                    mediaTypes(exchange.accept(), typeExchange != null ? typeExchange.accept() : new String[0]),
+                    null));
+        });
+        return result;
+    }
+
+    private static String joinPaths(String basePath, String path) {
+        if (basePath.isEmpty() || path.isEmpty()) {
+            return basePath + path;
+        }
+        return basePath.endsWith("/") || path.startsWith("/") ? basePath + path : basePath + "/" + path;
+    }
+
+    private static Set<MediaType> mediaTypes(String[] methodLevel, String[] classLevel) {
+        var values = methodLevel.length > 0 ? methodLevel : classLevel;
+        return new LinkedHashSet<>(MediaType.parseMediaTypes(List.of(values)));
+    }
+}
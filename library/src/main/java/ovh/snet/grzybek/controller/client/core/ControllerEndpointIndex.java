@@ -0,0 +1,73 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Index of controller methods to their resolved mappings, built once per application context from
+ * every {@link RequestMappingHandlerMapping}.
+ *
+ * <p>Unlike the annotations on the controller class, the handler mappings also contain
+ * programmatically registered mappings and path prefixes configured through {@code
+ * PathMatchConfigurer}.
+ *
+ * <p>The index is built on the first lookup, so clients created while the context starts, e.g. in a
+ * {@code @PostConstruct} method, see the registered mappings as well. It is built again once all
+ * singletons are instantiated, to pick up mappings registered during startup.
+ */
+@Component
+@ConditionalOnClass(name = "org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping")
+class ControllerEndpointIndex implements SmartInitializingSingleton {
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+    private volatile Map<Class<?>, Map<Method, ControllerEndpoint>> endpoints;
+
+    ControllerEndpointIndex(ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        this.handlerMappings = handlerMappings;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        endpoints = buildIndex();
+    }
+
+    private Map<Class<?>, Map<Method, ControllerEndpoint>> buildIndex() {
+        var index = new HashMap<Class<?>, Map<Method, ControllerEndpoint>>();
+        handlerMappings.orderedStream().forEach(mapping ->
+                mapping.getHandlerMethods().forEach((info, handlerMethod) -> {
+                    var controllerClass = ClassUtils.getUserClass(handlerMethod.getBeanType());
+                    index.computeIfAbsent(controllerClass, key -> new LinkedHashMap<>())
+                            .putIfAbsent(handlerMethod.getMethod(), ControllerEndpoint.of(info, handlerMethod));
+                }));
+
+        var frozen = new HashMap<Class<?>, Map<Method, ControllerEndpoint>>();
+        index.forEach((controllerClass, methods) -> frozen.put(controllerClass, Map.copyOf(methods)));
+        return Map.copyOf(frozen);
+    }
+
+    /**
+     * Returns the registered endpoints of the given controller class, or an empty map if the class
+     * is not a registered controller.
+     */
+    Map<Method, ControllerEndpoint> endpointsOf(Class<?> clazz) {
+        var index = endpoints;
+        if (index == null) {
+            synchronized (this) {
+                if (endpoints == null) {
+                    endpoints = buildIndex();
+                }
+                index = endpoints;
+            }
+        }
+        return index.getOrDefault(clazz, Map.of());
+    }
+}
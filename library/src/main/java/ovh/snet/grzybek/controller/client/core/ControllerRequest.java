@@ -0,0 +1,170 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import jakarta.servlet.http.Cookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.request.AbstractMockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.AbstractMockMultipartHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request being prepared for a single controller call. {@link ArgumentBinding ArgumentBindings}
+ * write the arguments into it, after which it is turned into a MockMvc request.
+ *
+ * <p>Parameters and headers accumulate, so several arguments may contribute values under the same
+ * name.
+ */
+public final class ControllerRequest {
+
+    private static final String LAST_SEGMENT = "";
+
+    private final Map<String, String> pathVariables = new LinkedHashMap<>();
+    private final Map<String, StringBuilder> matrixVariables = new LinkedHashMap<>();
+    private final MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+    private final MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+    private final List<Cookie> cookies = new ArrayList<>();
+    private final List<MockMultipartFile> files = new ArrayList<>();
+    private byte[] content;
+    private MediaType contentType;
+
+    ControllerRequest() {
+    }
+
+    /**
+     * Sets the value of a {@code {name}} placeholder in the URL pattern.
+     */
+    public ControllerRequest pathVariable(String name, Object value) {
+        pathVariables.put(name, value == null ? "" : value.toString());
+        return this;
+    }
+
+    /**
+     * Adds a matrix variable to the path segment of the given path variable, or to the last path
+     * segment if {@code pathVariable} is {@code null}.
+     */
+    public ControllerRequest matrixVariable(String pathVariable, String name, Object value) {
+        matrixVariables.computeIfAbsent(pathVariable == null ? LAST_SEGMENT : pathVariable, key -> new StringBuilder())
+                .append(';').append(name).append('=').append(value == null ? "" : value);
+        return this;
+    }
+
+    /**
+     * Adds query or form parameter values.
+     */
+    public ControllerRequest param(String name, String... values) {
+        for (var value : values) {
+            params.add(name, value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds header values.
+     */
+    public ControllerRequest header(String name, String... values) {
+        for (var value : values) {
+            headers.add(name, value);
+        }
+        return this;
+    }
+
+    public ControllerRequest cookie(Cookie cookie) {
+        cookies.add(cookie);
+        return this;
+    }
+
+    /**
+     * Adds a file; the controller method has to take a multipart parameter.
+     */
+    public ControllerRequest file(MockMultipartFile file) {
+        files.add(file);
+        return this;
+    }
+
+    /**
+     * Sets the request body.
+     */
+    public ControllerRequest content(byte[] content, MediaType contentType) {
+        this.content = content;
+        this.contentType = contentType;
+        return this;
+    }
+
+    AbstractMockHttpServletRequestBuilder<?> toRequestBuilder(ControllerEndpoint endpoint, boolean multipart) {
+        var url = expand(endpoint.pattern());
+
+        AbstractMockHttpServletRequestBuilder<?> builder;
+        if (multipart) {
+            var multipartBuilder = MockMvcRequestBuilders.multipart(url);
+            // multipart() defaults to POST; override if needed
+            multipartBuilder.with(request -> {
+                request.setMethod(endpoint.httpMethod().name());
+                return request;
+            });
+            files.forEach(multipartBuilder::file);
+            builder = multipartBuilder;
+        } else if (!files.isEmpty()) {
+            throw new IllegalStateException(
+                    "MockMultipartFile provided for parameter '" + files.get(0).getName() +
+                            "' but request is not multipart");
+        } else {
+            builder = MockMvcRequestBuilders.request(endpoint.httpMethod(), url);
+        }
+
+        params.forEach((name, values) -> builder.param(name, values.toArray(String[]::new)));
+        headers.forEach((name, values) -> builder.header(name, values.toArray()));
+        if (!cookies.isEmpty()) {
+            builder.cookie(cookies.toArray(Cookie[]::new));
+        }
+        if (content != null) {
+            builder.content(content).contentType(contentType(endpoint));
+        }
+        if (!endpoint.produces().isEmpty() && !hasHeader(HttpHeaders.ACCEPT)) {
+            builder.accept(endpoint.produces().toArray(MediaType[]::new));
+        }
+        return builder;
+    }
+
+    /**
+     * Returns the content type set by the binder, unless the endpoint consumes a single concrete
+     * type that does not include it, e.g. a vendor JSON type or the {@code contentType} of an
+     * {@code @HttpExchange}.
+     */
+    private MediaType contentType(ControllerEndpoint endpoint) {
+        if (endpoint.consumes().size() != 1) {
+            return contentType;
+        }
+        var consumed = endpoint.consumes().iterator().next();
+        if (consumed.isWildcardType() || consumed.isWildcardSubtype()
+                || contentType != null && consumed.includes(contentType)) {
+            return contentType;
+        }
+        return consumed;
+    }
+
+    private boolean hasHeader(String name) {
+        return headers.keySet().stream().anyMatch(name::equalsIgnoreCase);
+    }
+
+    private String expand(String pattern) {
+        var url = pattern;
+        for (var entry : pathVariables.entrySet()) {
+            var matrix = matrixVariables.get(entry.getKey());
+            url = url.replace("{" + entry.getKey() + "}", matrix == null ? entry.getValue() : entry.getValue() + matrix);
+        }
+        var lastSegmentMatrix = matrixVariables.get(LAST_SEGMENT);
+        if (lastSegmentMatrix != null) {
+            url = url + lastSegmentMatrix;
+        }
+        // Collapse duplicate slashes except after scheme (://)
+        return url.replaceAll("(?<!:)//+", "/");
+    }
+}
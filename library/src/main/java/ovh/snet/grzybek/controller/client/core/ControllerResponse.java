@@ -2,31 +2,61 @@ package ovh.snet.grzybek.controller.client.core;
 
 import org.springframework.mock.web.MockHttpServletResponse;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Captured result of a controller call.
+ *
+ * @param headers        a read-only, case-insensitive view of the response headers, materialised
+ *                       only when iterated
+ * @param response       the response body mapped to the return type of the controller method, or
+ *                       {@code null} for void methods, unsuccessful calls, discarded results with
+ *                       {@link ResponseMapping#LAZY} and {@link ResponseMapping#STATUS_ONLY}
+ * @param allocatedBytes bytes allocated by the calling thread inside {@code MockMvc.perform}, which
+ *                       excludes the client's own request preparation and response mapping, or
+ *                       {@code -1} if the JVM does not support allocation measurement
+ * @param sqlStatistics  the JDBC statements executed during the call, see {@link SqlStatistics}
+ */
 public record ControllerResponse<T>(long contentLength, String contentType,
                                     Map<String, List<String>> headers, String errorMessage, int statusCode,
                                     MockHttpServletResponse mockHttpServletResponse,
-                                    T response) {
+                                    T response, long allocatedBytes, SqlStatistics sqlStatistics) {
 
-    ControllerResponse(MockHttpServletResponse response) {
-        this(response, null);
+    /**
+     * Creates a response without allocation and SQL measurements, with the components the response
+     * had before they were added.
+     */
+    public ControllerResponse(long contentLength, String contentType, Map<String, List<String>> headers,
+                              String errorMessage, int statusCode, MockHttpServletResponse mockHttpServletResponse,
+                              T response) {
+        this(contentLength, contentType, headers, errorMessage, statusCode, mockHttpServletResponse, response,
+                -1, SqlStatistics.NONE);
     }
 
-    ControllerResponse(MockHttpServletResponse response, T responseBody) {
-        this(response.getContentLength(),
-                response.getContentType(),
-                getHeaders(response),
-                response.getErrorMessage(),
-                response.getStatus(),
-                response,
-                responseBody);
+    ControllerResponse(ControllerCallContext context) {
+        this(context, null);
     }
 
-    private static Map<String, List<String>> getHeaders(MockHttpServletResponse response) {
-        return response.getHeaderNames().stream()
-                .collect(HashMap::new, (map, name) -> map.put(name, response.getHeaders(name)), Map::putAll);
+    ControllerResponse(ControllerCallContext context, T responseBody) {
+        this(context.response().getContentLength(),
+                context.response().getContentType(),
+                new ResponseHeaders(context.response()),
+                context.response().getErrorMessage(),
+                context.response().getStatus(),
+                context.response(),
+                responseBody,
+                context.allocatedBytes(),
+                context.sqlStatistics());
+    }
+
+    @Override
+    public String toString() {
+        // Leaves out the headers, which would be materialised, and the body
+        return "ControllerResponse[statusCode=" + statusCode
+                + ", contentType=" + contentType
+                + ", contentLength=" + contentLength
+                + ", allocatedBytes=" + allocatedBytes
+                + ", sqlStatistics=" + sqlStatistics + "]";
     }
 }
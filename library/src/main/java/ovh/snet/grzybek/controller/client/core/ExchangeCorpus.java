@@ -0,0 +1,254 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Directory of exchanges recorded from proxied calls, served by {@link ControllerClientStubServer}.
+ *
+ * <p>The {@code index.json} file lists every exchange with what a request is matched on: method,
+ * path template, query and the SHA-256 hash of the body. Responses are kept in separate files under
+ * {@code responses/}, so a stub server only reads the index on start:
+ *
+ * <pre>{@code
+ * {"exchanges": [{"method": "GET", "pathTemplate": "/orders/{id}", "path": "/orders/42",
+ *                 "query": "expand=items", "bodyHash": "", "response": "responses/3f2a9c0d1e4b5a67.json"}]}
+ * }</pre>
+ *
+ * <p>Recording is enabled for the clients of an application context with the {@code
+ * controller-client.recording.dir} property. Only exchanges that passed the expectations of their
+ * call are recorded; warm-up calls and the calls of stress and payload scaling runs are not. Each
+ * response is written as soon as it is recorded. The recorded exchanges are merged into the index
+ * of the existing corpus when the application context closes and when the JVM exits, a later
+ * recording of the same request replacing the earlier one.
+ */
+public final class ExchangeCorpus {
+
+    private static final Map<Path, ExchangeCorpus> RECORDING = new ConcurrentHashMap<>();
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+    private static final String INDEX = "index.json";
+
+    private final Path directory;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final List<Matcher> matchers = new ArrayList<>();
+    private boolean indexChanged;
+
+    /**
+     * A recorded exchange, as listed in the index.
+     *
+     * @param query    the query and form parameters, sorted by name
+     * @param bodyHash SHA-256 hash of the request body, empty if there is none or it is a form
+     * @param response the response file, relative to the corpus directory
+     */
+    record Entry(String method, String pathTemplate, String path, String query, String bodyHash, String response) {
+
+        String key() {
+            return method + " " + path + "?" + query + "#" + bodyHash;
+        }
+    }
+
+    /**
+     * A recorded response.
+     *
+     * @param body the body, serialized as Base64
+     */
+    record Response(int status, Map<String, List<String>> headers, byte[] body) {
+    }
+
+    private record Matcher(Entry entry, PathPattern pattern) {
+    }
+
+    private ExchangeCorpus(Path directory) {
+        this.directory = directory;
+        var index = directory.resolve(INDEX);
+        if (Files.exists(index)) {
+            for (var entry : JSON.readValue(index.toFile(), Index.class).exchanges()) {
+                entries.put(entry.key(), entry);
+            }
+        }
+    }
+
+    /**
+     * Loads the corpus recorded into the given directory.
+     *
+     * @throws IllegalArgumentException if the directory contains no corpus
+     */
+    public static ExchangeCorpus load(Path directory) {
+        if (!Files.exists(directory.resolve(INDEX))) {
+            throw new IllegalArgumentException("No " + INDEX + " found in " + directory.toAbsolutePath());
+        }
+        var corpus = new ExchangeCorpus(directory);
+        corpus.entries.values().forEach(entry -> corpus.matchers.add(
+                new Matcher(entry, PathPatternParser.defaultInstance.parse(entry.pathTemplate()))));
+        // More specific templates first, so /orders/recent wins over /orders/{id}
+        corpus.matchers.sort(Comparator.comparing(Matcher::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+        return corpus;
+    }
+
+    /**
+     * Returns the corpus recorded into the given directory. Application contexts recording into the
+     * same directory share it.
+     */
+    static ExchangeCorpus recordingInto(Path directory) {
+        return RECORDING.computeIfAbsent(directory.toAbsolutePath(), path -> {
+            var corpus = new ExchangeCorpus(path);
+            Runtime.getRuntime().addShutdownHook(new Thread(corpus::flush, "controller-client-recording"));
+            return corpus;
+        });
+    }
+
+    /**
+     * Writes the index of every corpus recorded so far, e.g. to serve the exchanges from the same
+     * JVM. Does nothing if nothing is recorded.
+     */
+    public static void flushRecording() {
+        RECORDING.values().forEach(ExchangeCorpus::flush);
+    }
+
+    /**
+     * Records the exchange into this corpus.
+     */
+    void record(ControllerEndpoint endpoint, MockHttpServletRequest request, MockHttpServletResponse response) {
+        var headers = new LinkedHashMap<String, List<String>>();
+        response.getHeaderNames().forEach(name -> headers.put(name, List.copyOf(response.getHeaders(name))));
+        var recorded = new Response(response.getStatus(), headers, response.getContentAsByteArray());
+        var entry = new Entry(
+                endpoint.httpMethod().name(),
+                endpoint.pattern(),
+                request.getRequestURI(),
+                query(request.getParameterMap()),
+                isForm(request.getContentType()) ? "" : bodyHash(request.getContentAsByteArray()),
+                null);
+        add(entry, recorded);
+    }
+
+    private synchronized void add(Entry entry, Response response) {
+        var file = "responses/" + sha256(entry.key().getBytes(StandardCharsets.UTF_8)).substring(0, 16) + ".json";
+        try {
+            Files.createDirectories(directory.resolve("responses"));
+            JSON.writeValue(directory.resolve(file).toFile(), response);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Failed to write recorded exchange to " + directory, e);
+        }
+        var stored = new Entry(entry.method(), entry.pathTemplate(), entry.path(), entry.query(),
+                entry.bodyHash(), file);
+        entries.put(stored.key(), stored);
+        indexChanged = true;
+    }
+
+    /**
+     * Writes the index if exchanges were recorded since the last flush. Their responses are
+     * already written.
+     */
+    synchronized void flush() {
+        if (!indexChanged) {
+            return;
+        }
+        try {
+            JSON.writerWithDefaultPrettyPrinter()
+                    .writeValue(directory.resolve(INDEX).toFile(), new Index(List.copyOf(entries.values())));
+            indexChanged = false;
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Failed to write recorded exchanges to " + directory, e);
+        }
+    }
+
+    /**
+     * Finds the recorded exchange for a request, preferring one recorded with the same path over one
+     * only matching the path template.
+     *
+     * @param query    the query and form parameters as returned by {@link #query}
+     * @param bodyHash the body hash as returned by {@link #bodyHash}
+     * @return the exchange, or {@code null} if none matches
+     */
+    Entry find(String method, String path, String query, String bodyHash) {
+        var exact = entries.get(method + " " + path + "?" + query + "#" + bodyHash);
+        if (exact != null) {
+            return exact;
+        }
+        var container = PathContainer.parsePath(path);
+        for (var matcher : matchers) {
+            var entry = matcher.entry();
+            if (entry.method().equals(method) && entry.query().equals(query) && entry.bodyHash().equals(bodyHash)
+                    && matcher.pattern().matches(container)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    Response response(Entry entry) {
+        try {
+            return JSON.readValue(Files.readAllBytes(directory.resolve(entry.response())), Response.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read recorded response " + entry.response(), e);
+        }
+    }
+
+    /**
+     * Normalizes parameters into a query string sorted by name, keeping the order of the values.
+     */
+    static String query(Map<String, String[]> parameters) {
+        var query = new StringBuilder();
+        new TreeMap<>(parameters).forEach((name, values) -> {
+            for (var value : values) {
+                if (!query.isEmpty()) {
+                    query.append('&');
+                }
+                query.append(URLEncoder.encode(name, StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        });
+        return query.toString();
+    }
+
+    static String query(MultiValueMap<String, String> parameters) {
+        var map = new LinkedHashMap<String, String[]>();
+        parameters.forEach((name, values) -> map.put(name, values.toArray(String[]::new)));
+        return query(map);
+    }
+
+    static String bodyHash(byte[] body) {
+        return body == null || body.length == 0 ? "" : sha256(body);
+    }
+
+    static boolean isForm(String contentType) {
+        return contentType != null
+                && MediaType.APPLICATION_FORM_URLENCODED.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Index(List<Entry> exchanges) {
+    }
+}
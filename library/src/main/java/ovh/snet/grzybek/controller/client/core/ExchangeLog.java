@@ -0,0 +1,211 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Fixed-size log of the last exchanges made through controller proxies on the current thread,
+ * attached to assertion failures so a failing step of a longer flow comes with the requests that
+ * led up to it.
+ *
+ * <p>Recording copies references to the method, URL and status of the exchange into a
+ * preallocated slot, along with the first {@value #MAX_BODY_LENGTH} bytes of the request body, which
+ * the request hands out without copying. Response bodies are not copied when recording: the log
+ * keeps the latest response of the thread and reads the first {@value #MAX_BODY_LENGTH} bytes of its
+ * body only when a failure is reported, while older exchanges show the declared length of theirs.
+ * Nothing is decoded or formatted until then. Failures of {@code expectStatus}, {@code thenStatus}
+ * and other response expectations get the log attached by the proxy itself, other test failures
+ * when the test uses {@code ControllerClientExtension}.
+ *
+ * <p>Clients keep {@value #DEFAULT_CAPACITY} exchanges per thread unless set with the {@code
+ * controller-client.exchange-log.capacity} property of their application context; {@code 0} turns
+ * it off.
+ */
+public final class ExchangeLog {
+
+    static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_BODY_LENGTH = 1024;
+    private static final ThreadLocal<ExchangeLog> CURRENT = new ThreadLocal<>();
+
+    private final Exchange[] exchanges;
+    private int next;
+    private int size;
+    // Body of the latest exchange, read only when the log is dumped
+    private MockHttpServletResponse latestResponse;
+
+    private ExchangeLog(int capacity) {
+        this.exchanges = new Exchange[capacity];
+        for (int i = 0; i < capacity; i++) {
+            exchanges[i] = new Exchange();
+        }
+    }
+
+    /**
+     * Records an exchange in the log of the current thread.
+     *
+     * @param capacity the number of exchanges kept by the client's application context
+     */
+    static void record(int capacity, String operation, MockHttpServletRequest request,
+                       MockHttpServletResponse response, long elapsedNanos) {
+        if (capacity == 0) {
+            return;
+        }
+        var log = CURRENT.get();
+        if (log == null || log.exchanges.length != capacity) {
+            log = new ExchangeLog(capacity);
+            CURRENT.set(log);
+        }
+        log.exchanges[log.next].capture(operation, request, response, elapsedNanos);
+        log.latestResponse = response;
+        log.next = (log.next + 1) % capacity;
+        log.size = Math.min(log.size + 1, capacity);
+    }
+
+    /**
+     * Forgets the exchanges recorded on the current thread, e.g. before a test starts.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Formats the exchanges recorded on the current thread, oldest first, or returns {@code null} if
+     * there are none.
+     */
+    public static String dump() {
+        var log = CURRENT.get();
+        if (log == null || log.size == 0) {
+            return null;
+        }
+        var dump = new StringBuilder()
+                .append("Last ").append(log.size).append(" controller client exchanges on thread ")
+                .append(Thread.currentThread().getName()).append(", oldest first:");
+        int first = (log.next - log.size + log.exchanges.length) % log.exchanges.length;
+        for (int i = 0; i < log.size; i++) {
+            var latest = i == log.size - 1 ? log.latestResponse : null;
+            log.exchanges[(first + i) % log.exchanges.length].appendTo(dump.append('\n'), i + 1, latest);
+        }
+        return dump.toString();
+    }
+
+    /**
+     * Attaches the exchanges recorded on the current thread to the failure as a suppressed
+     * exception, unless they are already attached or there are none.
+     */
+    public static void attachTo(Throwable failure) {
+        for (var suppressed : failure.getSuppressed()) {
+            if (suppressed instanceof Dump) {
+                return;
+            }
+        }
+        var dump = dump();
+        if (dump != null) {
+            failure.addSuppressed(new Dump(dump));
+        }
+    }
+
+    private static final class Exchange {
+
+        private String operation;
+        private String method;
+        private String uri;
+        private String query;
+        private int status;
+        private long elapsedNanos;
+        private String responseType;
+        private long responseLength;
+        private final byte[] requestBody = new byte[MAX_BODY_LENGTH];
+        private int requestLength;
+        private String requestEncoding;
+
+        void capture(String operation, MockHttpServletRequest request, MockHttpServletResponse response,
+                     long elapsedNanos) {
+            this.operation = operation;
+            this.method = request.getMethod();
+            this.uri = request.getRequestURI();
+            this.query = request.getQueryString();
+            this.status = response.getStatus();
+            this.elapsedNanos = elapsedNanos;
+            this.responseType = response.getContentType();
+            this.responseLength = response.getContentLengthLong();
+            // The request hands out its content without copying it
+            var content = request.getContentAsByteArray();
+            requestLength = content == null ? 0 : content.length;
+            requestEncoding = request.getCharacterEncoding();
+            if (requestLength > 0) {
+                System.arraycopy(content, 0, requestBody, 0, Math.min(requestLength, MAX_BODY_LENGTH));
+            }
+        }
+
+        /**
+         * @param response the response of this exchange if it is the latest one, to show its body
+         */
+        void appendTo(StringBuilder dump, int number, MockHttpServletResponse response) {
+            dump.append("  #").append(number).append(' ').append(method).append(' ').append(uri);
+            if (query != null) {
+                dump.append('?').append(query);
+            }
+            dump.append(" -> ").append(status)
+                    .append(" in ").append(LatencyHistogram.format(Duration.ofNanos(elapsedNanos)))
+                    .append(" (").append(operation).append(')');
+            if (requestLength > 0) {
+                appendBody(dump, "request", requestBody, requestLength, requestEncoding);
+            }
+            if (response != null && !isBinary(responseType)) {
+                var content = response.getContentAsByteArray();
+                if (content.length > 0) {
+                    appendBody(dump, "response", content, content.length, response.getCharacterEncoding());
+                }
+            } else if (responseLength > 0) {
+                dump.append("\n     response: ").append(responseLength).append(" bytes");
+            }
+        }
+
+        private static void appendBody(StringBuilder dump, String name, byte[] body, int length, String encoding) {
+            var charset = encoding != null && Charset.isSupported(encoding)
+                    ? Charset.forName(encoding)
+                    : StandardCharsets.UTF_8;
+            dump.append("\n     ").append(name).append(": ")
+                    .append(new String(body, 0, Math.min(length, MAX_BODY_LENGTH), charset));
+            if (length > MAX_BODY_LENGTH) {
+                dump.append("... (").append(length).append(" bytes)");
+            }
+        }
+
+        private static boolean isBinary(String contentType) {
+            if (contentType == null) {
+                return false;
+            }
+            try {
+                var mediaType = MediaType.parseMediaType(contentType);
+                return !mediaType.getType().equals("text")
+                        && !mediaType.getSubtype().contains("json")
+                        && !mediaType.getSubtype().contains("xml")
+                        && !MediaType.APPLICATION_FORM_URLENCODED.includes(mediaType);
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Carries the dump in the stack trace of a failure, without a stack trace of its own.
+     */
+    private static final class Dump extends RuntimeException {
+
+        Dump(String dump) {
+            super(dump, null, false, false);
+        }
+
+        @Override
+        public String toString() {
+            return getMessage();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the number of exchanges the clients of this application context keep per thread in the
+ * {@link ExchangeLog} from the {@code controller-client.exchange-log.capacity} property.
+ */
+@Component
+@ConditionalOnProperty(prefix = "controller-client.exchange-log", name = "capacity")
+class ExchangeLogConfiguration {
+
+    private final int capacity;
+
+    ExchangeLogConfiguration(@Value("${controller-client.exchange-log.capacity}") int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Exchange log capacity cannot be negative but was " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,146 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Latency samples of repeated controller calls.
+ *
+ * <p>All samples are kept, so percentiles are exact (nearest-rank). {@link #toString()} renders the
+ * summary and an exponential bucket histogram, which is what latency assertion failures print.
+ * Instances are not thread-safe.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 12;
+    private static final int BAR_WIDTH = 40;
+
+    private long[] samples = new long[64];
+    private int count;
+    private boolean sorted = true;
+
+    /**
+     * Records a single sample.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        sorted = false;
+    }
+
+    /**
+     * Records all samples of another histogram, e.g. to merge histograms recorded by several
+     * threads.
+     */
+    void recordAll(LatencyHistogram other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + other.count));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        sorted = false;
+    }
+
+    /**
+     * Returns the number of recorded samples.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the latency below or at which the given fraction of samples fall.
+     *
+     * @param percentile fraction between 0 (exclusive) and 1 (inclusive), e.g. {@code 0.99}
+     * @throws IllegalArgumentException if the percentile is out of range
+     * @throws IllegalStateException    if no samples were recorded
+     */
+    public Duration percentile(double percentile) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be in (0, 1] but was " + percentile);
+        }
+        var values = sortedSamples();
+        var rank = (int) Math.ceil(percentile * count);
+        return Duration.ofNanos(values[Math.max(rank, 1) - 1]);
+    }
+
+    public Duration min() {
+        return Duration.ofNanos(sortedSamples()[0]);
+    }
+
+    public Duration max() {
+        return Duration.ofNanos(sortedSamples()[count - 1]);
+    }
+
+    public Duration mean() {
+        return Duration.ofNanos((long) Arrays.stream(sortedSamples(), 0, count).average().orElseThrow());
+    }
+
+    /**
+     * Sorts the samples in place and returns the backing array, valid up to {@link #count}.
+     */
+    private long[] sortedSamples() {
+        if (count == 0) {
+            throw new IllegalStateException("No latency samples recorded");
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        if (count == 0) {
+            return "no samples";
+        }
+        var values = sortedSamples();
+        var result = new StringBuilder()
+                .append("samples=").append(count)
+                .append(" min=").append(format(min()))
+                .append(" mean=").append(format(mean()))
+                .append(" p50=").append(format(percentile(0.5)))
+                .append(" p90=").append(format(percentile(0.9)))
+                .append(" p99=").append(format(percentile(0.99)))
+                .append(" max=").append(format(max()));
+
+        long lower = Math.max(values[0], 1);
+        long upper = values[count - 1];
+        double ratio = Math.pow((double) upper / lower, 1.0 / BUCKETS);
+        if (ratio <= 1) {
+            return result.toString();
+        }
+
+        int index = 0;
+        var counts = new int[BUCKETS];
+        var bounds = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            bounds[bucket] = bucket == BUCKETS - 1 ? upper : (long) (lower * Math.pow(ratio, bucket + 1));
+            while (index < count && values[index] <= bounds[bucket]) {
+                counts[bucket]++;
+                index++;
+            }
+        }
+
+        int maxCount = Arrays.stream(counts).max().orElse(1);
+        long from = values[0];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            int bar = (int) Math.round((double) counts[bucket] * BAR_WIDTH / maxCount);
+            result.append(String.format(Locale.ROOT, "%n  %12s - %-12s | %-" + BAR_WIDTH + "s %d",
+                    format(Duration.ofNanos(from)), format(Duration.ofNanos(bounds[bucket])),
+                    "#".repeat(bar), counts[bucket]));
+            from = bounds[bucket];
+        }
+        return result.toString();
+    }
+
+    static String format(Duration duration) {
+        return String.format(Locale.ROOT, "%.3f ms", duration.toNanos() / 1_000_000.0);
+    }
+}
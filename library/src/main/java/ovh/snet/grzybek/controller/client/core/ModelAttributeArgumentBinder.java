@@ -0,0 +1,91 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.ModelAttribute;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flattens {@code @ModelAttribute} objects into request parameters, the way Spring data binding
+ * reads them back: nested objects use dotted paths and maps use {@code name[key]}. Readable
+ * properties of every class are introspected once and cached.
+ */
+class ModelAttributeArgumentBinder implements ArgumentBinder {
+
+    private static final int MAX_DEPTH = 8;
+
+    private final Map<Class<?>, List<Property>> properties = new ConcurrentHashMap<>();
+
+    @Override
+    public ArgumentBinding resolve(MethodParameter parameter) {
+        if (!parameter.hasParameterAnnotation(ModelAttribute.class)) {
+            return null;
+        }
+        return (value, request) -> {
+            if (value != null) {
+                flatten(request, "", value, 0);
+            }
+        };
+    }
+
+    private void flatten(ControllerRequest request, String prefix, Object value, int depth) throws Exception {
+        for (var property : propertiesOf(value.getClass())) {
+            var propertyValue = property.getter().invoke(value);
+            var name = prefix + property.name();
+            if (propertyValue == null) {
+                continue;
+            }
+            if (isLeaf(propertyValue) || depth >= MAX_DEPTH) {
+                StandardArgumentBinders.param(request, name, propertyValue);
+            } else if (propertyValue instanceof Map<?, ?> map) {
+                for (var entry : map.entrySet()) {
+                    StandardArgumentBinders.param(request, name + "[" + entry.getKey() + "]", entry.getValue());
+                }
+            } else {
+                flatten(request, name + ".", propertyValue, depth + 1);
+            }
+        }
+    }
+
+    private static boolean isLeaf(Object value) {
+        return BeanUtils.isSimpleValueType(value.getClass())
+                || value instanceof MockMultipartFile
+                || value instanceof Collection<?>
+                || value.getClass().isArray();
+    }
+
+    private List<Property> propertiesOf(Class<?> clazz) {
+        return properties.computeIfAbsent(clazz, ModelAttributeArgumentBinder::introspect);
+    }
+
+    private static List<Property> introspect(Class<?> clazz) {
+        var result = new ArrayList<Property>();
+        if (clazz.isRecord()) {
+            for (var component : clazz.getRecordComponents()) {
+                var accessor = component.getAccessor();
+                ReflectionUtils.makeAccessible(accessor);
+                result.add(new Property(component.getName(), accessor));
+            }
+            return List.copyOf(result);
+        }
+        for (var descriptor : BeanUtils.getPropertyDescriptors(clazz)) {
+            var readMethod = descriptor.getReadMethod();
+            if (readMethod != null && readMethod.getDeclaringClass() != Object.class) {
+                ReflectionUtils.makeAccessible(readMethod);
+                result.add(new Property(descriptor.getName(), readMethod));
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    private record Property(String name, Method getter) {
+    }
+}
@@ -0,0 +1,31 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Locale;
+
+/**
+ * Writes Spring Data {@link Pageable} arguments as the {@code page}, {@code size} and {@code sort}
+ * request parameters read by Spring Data's {@code PageableHandlerMethodArgumentResolver}, e.g.
+ * {@code page=2&size=20&sort=name,desc}. Only registered when Spring Data is on the classpath.
+ */
+class PageableArgumentBinder implements ArgumentBinder {
+
+    @Override
+    public ArgumentBinding resolve(MethodParameter parameter) {
+        if (!Pageable.class.isAssignableFrom(parameter.getParameterType())) {
+            return null;
+        }
+        return (value, request) -> {
+            if (!(value instanceof Pageable pageable) || pageable.isUnpaged()) {
+                return;
+            }
+            request.param("page", String.valueOf(pageable.getPageNumber()));
+            request.param("size", String.valueOf(pageable.getPageSize()));
+            for (var order : pageable.getSort()) {
+                request.param("sort", order.getProperty() + "," + order.getDirection().name().toLowerCase(Locale.ROOT));
+            }
+        };
+    }
+}
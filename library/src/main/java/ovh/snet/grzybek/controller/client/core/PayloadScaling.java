@@ -0,0 +1,91 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Latency and allocation of a call measured at increasing payload sizes, as measured by {@link
+ * ControllerClientPayloadScaling}.
+ *
+ * <p>Growth is summarized by the exponent of a power law {@code cost = c * size^k} fitted on a
+ * log-log scale: about {@code 1} for linear endpoints, about {@code 2} for quadratic ones. Only the
+ * upper half of the sizes is used for the fit, as fixed per-request overhead dominates small
+ * payloads and would hide the growth.
+ *
+ * @param points the measurements, ordered by size
+ */
+public record PayloadScaling(List<Point> points) {
+
+    public PayloadScaling {
+        points = List.copyOf(points);
+    }
+
+    /**
+     * Measurement at a single payload size.
+     *
+     * @param size           the size passed to the payload generator
+     * @param latency        the median latency of the calls
+     * @param allocatedBytes the median number of bytes allocated by a call, or {@code -1} if
+     *                       allocation measurement is not supported
+     */
+    public record Point(int size, Duration latency, long allocatedBytes) {
+    }
+
+    /**
+     * Returns the fitted growth exponent of the latency.
+     */
+    public double latencyExponent() {
+        return exponent(point -> point.latency().toNanos());
+    }
+
+    /**
+     * Returns the fitted growth exponent of the allocated bytes, or {@link Double#NaN} if allocation
+     * measurement is not supported.
+     */
+    public double allocationExponent() {
+        if (points.stream().anyMatch(point -> point.allocatedBytes() < 0)) {
+            return Double.NaN;
+        }
+        return exponent(Point::allocatedBytes);
+    }
+
+    /**
+     * Least-squares slope of {@code log(cost)} over {@code log(size)}.
+     */
+    private double exponent(ToDoubleFunction<Point> cost) {
+        var fitted = points.subList(points.size() / 2, points.size());
+        if (fitted.size() < 2) {
+            throw new IllegalStateException("At least 4 sizes are needed to fit the growth");
+        }
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+        for (var point : fitted) {
+            double x = Math.log(point.size());
+            double y = Math.log(Math.max(cost.applyAsDouble(point), 1));
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        int n = fitted.size();
+        return (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder(String.format(Locale.ROOT, "%10s %12s %16s", "size", "latency", "allocated"));
+        for (var point : points) {
+            result.append(String.format(Locale.ROOT, "%n%10d %12s %16s",
+                    point.size(),
+                    LatencyHistogram.format(point.latency()),
+                    point.allocatedBytes() < 0 ? "n/a" : point.allocatedBytes() + " B"));
+        }
+        result.append(String.format(Locale.ROOT, "%nlatency ~ size^%.2f", latencyExponent()));
+        var allocationExponent = allocationExponent();
+        if (!Double.isNaN(allocationExponent)) {
+            result.append(String.format(Locale.ROOT, ", allocation ~ size^%.2f", allocationExponent));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects measured calls per controller method and writes them to a results file when the JVM
+ * exits, for the controller-client performance Gradle plugin to merge and compare against a
+ * baseline. Only calls made to check performance are measured: repeated calls and calls with
+ * latency or allocation expectations of {@link ControllerClientCaller}, stress runs and payload
+ * scaling runs. Each proxied call is a sample of its own controller method; calls of stress runs are
+ * samples of the method at their thread count, e.g. {@code com.example.MyController#search@threads=8}.
+ *
+ * <p>Collection is enabled by the {@value #RESULTS_DIR_PROPERTY} system property, which the plugin
+ * sets on every test task. Each forked test JVM writes its own file into that directory:
+ *
+ * <pre>{@code
+ * {"operations": {"com.example.MyController#search": {"latencyNanos": [...], "allocatedBytes": [...]}}}
+ * }</pre>
+ */
+final class PerfResults {
+
+    static final String RESULTS_DIR_PROPERTY = "controller-client.perf.results-dir";
+
+    private static final Map<String, Samples> SAMPLES = new ConcurrentHashMap<>();
+    private static final String RESULTS_DIR = System.getProperty(RESULTS_DIR_PROPERTY);
+
+    static {
+        if (RESULTS_DIR != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(PerfResults::write, "controller-client-perf-results"));
+        }
+    }
+
+    private PerfResults() {
+    }
+
+    /**
+     * Records a single measured call of the given controller method.
+     */
+    static void record(String operation, long elapsedNanos, long allocatedBytes) {
+        if (RESULTS_DIR == null) {
+            return;
+        }
+        SAMPLES.computeIfAbsent(operation, key -> new Samples()).add(elapsedNanos, allocatedBytes);
+    }
+
+    private static void write() {
+        if (SAMPLES.isEmpty()) {
+            return;
+        }
+        var operations = new LinkedHashMap<String, Object>();
+        SAMPLES.forEach((operation, samples) -> operations.put(operation, samples.toMap()));
+
+        var directory = new File(RESULTS_DIR);
+        directory.mkdirs();
+        var file = new File(directory, "perf-" + ManagementFactory.getRuntimeMXBean().getPid() + "-" + UUID.randomUUID() + ".json");
+        JsonMapper.builder().build().writeValue(file, Map.of("operations", operations));
+    }
+
+    private static final class Samples {
+
+        private long[] latencyNanos = new long[64];
+        private long[] allocatedBytes = new long[64];
+        private int count;
+
+        synchronized void add(long elapsedNanos, long allocated) {
+            if (count == latencyNanos.length) {
+                latencyNanos = Arrays.copyOf(latencyNanos, count * 2);
+                allocatedBytes = Arrays.copyOf(allocatedBytes, count * 2);
+            }
+            latencyNanos[count] = elapsedNanos;
+            allocatedBytes[count] = allocated;
+            count++;
+        }
+
+        synchronized Map<String, Object> toMap() {
+            var result = new LinkedHashMap<String, Object>();
+            result.put("latencyNanos", Arrays.copyOf(latencyNanos, count));
+            result.put("allocatedBytes", Arrays.copyOf(allocatedBytes, count));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Records the calls of the clients of this application context into the {@link ExchangeCorpus} in
+ * the directory set with the {@code controller-client.recording.dir} property, e.g. {@code
+ * build/exchanges}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "controller-client.recording", name = "dir")
+class RecordingConfiguration implements DisposableBean {
+
+    private final ExchangeCorpus corpus;
+
+    RecordingConfiguration(@Value("${controller-client.recording.dir}") String directory) {
+        this.corpus = ExchangeCorpus.recordingInto(Path.of(directory));
+    }
+
+    ExchangeCorpus corpus() {
+        return corpus;
+    }
+
+    @Override
+    public void destroy() {
+        corpus.flush();
+    }
+}
@@ -1,24 +1,26 @@
 package ovh.snet.grzybek.controller.client.core;
 
-import org.springframework.mock.web.MockHttpServletResponse;
-
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+/**
+ * Client that returns the captured HTTP response together with the result of the controller
+ * action. The proxy is built once from the builder configuration and every call captures its own
+ * response, so a single instance can be shared between threads.
+ */
 public class RespondingControllerClient<T> {
 
-    private final ControllerClientBuilder<T> builder;
-    private MockHttpServletResponse lastResponse;
+    private final T client;
 
     /**
      * Constructs a {@code RespondingControllerClient} with the specified {@link ControllerClientBuilder}.
-     * The builder is used to configure the client and handle the HTTP response.
+     * The builder configuration is frozen when this client is created.
      *
      * @param builder the builder used to construct and configure the controller client
      */
     RespondingControllerClient(ControllerClientBuilder<T> builder) {
-        this.builder = builder;
-        builder.handleResponse(r -> lastResponse = r);
+        this.client = builder.build();
     }
 
     /**
@@ -30,11 +32,14 @@ public class RespondingControllerClient<T> {
      * @param controller a {@link Function} representing the controller action to invoke, which returns a result
      * @param <R>        the type of the result returned by the controller action
      * @return a {@link ControllerResponse} containing the captured HTTP response and the result of the controller action
-     * @throws IllegalStateException if a controller action has already been defined
+     * @throws IllegalStateException if the action did not call the controller client
      */
     public <R> ControllerResponse<R> executeFunction(Function<T, Object> controller) {
-        var response = (R) controller.apply(builder.build());
-        return new ControllerResponse<>(lastResponse, response);
+        // The function may use the returned values, so the proxy has to map them
+        try (var context = ControllerCallContext.open(List.of(), false)) {
+            var response = (R) controller.apply(client);
+            return new ControllerResponse<>(context, response);
+        }
     }
 
     /**
@@ -44,10 +49,12 @@ public class RespondingControllerClient<T> {
      *
      * @param controller a {@link Consumer} representing the controller action to invoke, which does not return a result
      * @return a {@link ControllerResponse} containing the captured HTTP response
-     * @throws IllegalStateException if a controller action has already been defined
+     * @throws IllegalStateException if the action did not call the controller client
      */
     public ControllerResponse<Void> executeConsumer(Consumer<T> controller) {
-        controller.accept(builder.build());
-        return new ControllerResponse<>(lastResponse);
+        try (var context = ControllerCallContext.open(List.of(), true)) {
+            controller.accept(client);
+            return new ControllerResponse<>(context);
+        }
     }
 }
@@ -0,0 +1,62 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only, case-insensitive view of the headers of a {@link MockHttpServletResponse}.
+ *
+ * <p>Single header lookups go straight to the response. The full map is only materialised, once,
+ * when the view is iterated, so responses whose headers are never inspected cost nothing.
+ */
+final class ResponseHeaders extends AbstractMap<String, List<String>> {
+
+    private final MockHttpServletResponse response;
+    private volatile Map<String, List<String>> materialized;
+
+    ResponseHeaders(MockHttpServletResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if (!(key instanceof String name) || !response.containsHeader(name)) {
+            return null;
+        }
+        return Collections.unmodifiableList(response.getHeaders(name));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String name && response.containsHeader(name);
+    }
+
+    @Override
+    public int size() {
+        return response.getHeaderNames().size();
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return materialize().entrySet();
+    }
+
+    private Map<String, List<String>> materialize() {
+        var headers = materialized;
+        if (headers == null) {
+            var map = new LinkedCaseInsensitiveMap<List<String>>();
+            for (var name : response.getHeaderNames()) {
+                map.put(name, Collections.unmodifiableList(response.getHeaders(name)));
+            }
+            headers = Collections.unmodifiableMap(map);
+            materialized = headers;
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,28 @@
+package ovh.snet.grzybek.controller.client.core;
+
+/**
+ * Controls when the response body of a successful call is deserialized into the return type of the
+ * controller method.
+ */
+public enum ResponseMapping {
+
+    /**
+     * The body is mapped as soon as the call returns. This is the default.
+     */
+    EAGER,
+
+    /**
+     * The body is only mapped when it is used. Bodies of calls whose result is discarded, such as
+     * {@code ControllerClientCaller.when(Consumer)} or {@code
+     * RespondingControllerClient.executeConsumer}, are not parsed at all. Calls whose result is
+     * handed to the caller, i.e. direct calls on the proxy and calls inside a {@code Function}, still
+     * map eagerly, because the proxy has to return an instance of the declared type.
+     */
+    LAZY,
+
+    /**
+     * The body is never parsed and the proxy always returns {@code null}. Useful for status-check
+     * and authorization tests that make many calls.
+     */
+    STATUS_ONLY
+}
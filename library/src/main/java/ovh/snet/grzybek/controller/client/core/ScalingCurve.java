@@ -0,0 +1,54 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Throughput and latency of the same call executed by an increasing number of threads, as measured
+ * by {@link ControllerClientStress}.
+ *
+ * @param levels the measurements, ordered by thread count
+ */
+public record ScalingCurve(List<Level> levels) {
+
+    public ScalingCurve {
+        levels = List.copyOf(levels);
+    }
+
+    /**
+     * Measurement at a single thread count.
+     *
+     * @param threads    the number of threads calling concurrently
+     * @param wallTime   the time from releasing the threads until the last call finished
+     * @param throughput completed calls per second
+     * @param latencies  latencies of all calls made at this level
+     * @param efficiency throughput relative to linear scaling of the single-thread throughput, where
+     *                   {@code 1.0} means perfect scaling
+     */
+    public record Level(int threads, Duration wallTime, double throughput, LatencyHistogram latencies,
+                        double efficiency) {
+    }
+
+    /**
+     * Returns the lowest scaling efficiency over all levels.
+     */
+    public double minEfficiency() {
+        return levels.stream().mapToDouble(Level::efficiency).min().orElse(1.0);
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder(String.format(Locale.ROOT, "%8s %14s %12s %12s %11s",
+                "threads", "calls/s", "p50", "p99", "efficiency"));
+        for (var level : levels) {
+            result.append(String.format(Locale.ROOT, "%n%8d %14.1f %12s %12s %10.0f%%",
+                    level.threads(),
+                    level.throughput(),
+                    LatencyHistogram.format(level.latencies().percentile(0.5)),
+                    LatencyHistogram.format(level.latencies().percentile(0.99)),
+                    level.efficiency() * 100));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Collects JDBC statements executed on the current thread while a controller call is performed.
+ *
+ * <p>Tracking {@link javax.sql.DataSource DataSources} call {@link #record(String, long)} for every
+ * executed statement, which is attributed to the recorder started on the same thread. Clients of a
+ * context without tracked data sources never start a recorder, so the proxy pays nothing for it.
+ */
+final class SqlRecorder implements AutoCloseable {
+
+    private static final ThreadLocal<SqlRecorder> CURRENT = new ThreadLocal<>();
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SqlRecorder previous;
+    private final Map<String, Integer> fingerprints = new HashMap<>();
+    private int statementCount;
+    private long totalNanos;
+
+    private SqlRecorder(SqlRecorder previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Starts recording on the current thread. Only called for clients of an application context
+     * whose data sources are tracked.
+     */
+    static SqlRecorder start() {
+        var recorder = new SqlRecorder(CURRENT.get());
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    static void record(String sql, long nanos) {
+        var recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.statementCount++;
+            recorder.totalNanos += nanos;
+            recorder.fingerprints.merge(fingerprint(sql), 1, Integer::sum);
+        }
+    }
+
+    SqlStatistics statistics() {
+        if (statementCount == 0) {
+            return SqlStatistics.NONE;
+        }
+        var duplicates = new HashMap<String, Integer>();
+        fingerprints.forEach((sql, count) -> {
+            if (count > 1) {
+                duplicates.put(sql, count);
+            }
+        });
+        return new SqlStatistics(statementCount, Duration.ofNanos(totalNanos), duplicates);
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Normalizes a statement so that executions differing only in literal values share the same
+     * fingerprint.
+     */
+    static String fingerprint(String sql) {
+        if (sql == null) {
+            return "<batch>";
+        }
+        var normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+}
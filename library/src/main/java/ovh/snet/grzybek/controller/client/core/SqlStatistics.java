@@ -0,0 +1,39 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC statements executed while the controller handled a call. Only populated when SQL tracking
+ * is enabled with the {@code controller-client.sql.enabled=true} property.
+ *
+ * @param statementCount       number of executed statements
+ * @param totalTime            total time spent executing the statements
+ * @param duplicatedStatements fingerprints of statements executed more than once, with the number
+ *                             of executions; a long list of one fingerprint usually means N+1
+ *                             queries
+ */
+public record SqlStatistics(int statementCount, Duration totalTime, Map<String, Integer> duplicatedStatements) {
+
+    /**
+     * Statistics of a call that did not execute any statement or was not tracked.
+     */
+    public static final SqlStatistics NONE = new SqlStatistics(0, Duration.ZERO, Map.of());
+
+    public SqlStatistics {
+        duplicatedStatements = Map.copyOf(duplicatedStatements);
+    }
+
+    SqlStatistics plus(SqlStatistics other) {
+        if (other.statementCount == 0) {
+            return this;
+        }
+        if (statementCount == 0) {
+            return other;
+        }
+        var duplicates = new HashMap<>(duplicatedStatements);
+        other.duplicatedStatements.forEach((sql, count) -> duplicates.merge(sql, count, Integer::sum));
+        return new SqlStatistics(statementCount + other.statementCount, totalTime.plus(other.totalTime), duplicates);
+    }
+}
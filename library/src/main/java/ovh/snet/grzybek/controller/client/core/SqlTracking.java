@@ -0,0 +1,89 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * JDBC wrappers reporting every executed statement to the {@link SqlRecorder} of the current
+ * thread.
+ */
+final class SqlTracking {
+
+    private SqlTracking() {
+    }
+
+    /**
+     * Wraps the data source so that all connections it hands out are tracked. The proxy extends the
+     * data source class when possible, so injection points typed with the concrete class keep
+     * working.
+     */
+    static DataSource dataSource(DataSource dataSource) {
+        var factory = new ProxyFactory(dataSource);
+        factory.setProxyTargetClass(!Modifier.isFinal(dataSource.getClass().getModifiers()));
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            var result = invocation.proceed();
+            if (result instanceof Connection connection
+                    && invocation.getMethod().getName().equals("getConnection")) {
+                return connection(connection);
+            }
+            return result;
+        });
+        return (DataSource) factory.getProxy();
+    }
+
+    private static Connection connection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                SqlTracking.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    var result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        return statement(statement, firstStringArgument(args));
+                    }
+                    return result;
+                });
+    }
+
+    private static Statement statement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+                SqlTracking.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    var sql = firstStringArgument(args);
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        SqlRecorder.record(sql != null ? sql : preparedSql, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private static String firstStringArgument(Object[] args) {
+        return args != null && args.length > 0 && args[0] instanceof String sql ? sql : null;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every {@link DataSource} bean so that statements executed during a controller call are
+ * attributed to it and exposed as {@link SqlStatistics}. Enabled with the {@code
+ * controller-client.sql.enabled=true} property.
+ */
+@Component
+@ConditionalOnProperty(prefix = "controller-client.sql", name = "enabled", havingValue = "true")
+class SqlTrackingBeanPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource dataSource) {
+            return SqlTracking.dataSource(dataSource);
+        }
+        return bean;
+    }
+}
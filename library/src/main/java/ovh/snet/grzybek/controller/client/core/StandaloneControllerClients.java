@@ -0,0 +1,139 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.web.servlet.setup.StandaloneMockMvcBuilder;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Standalone setup of controller clients, created by {@link ControllerClients#standalone(Object...)}.
+ *
+ * <p>The {@code MockMvc} instance is built on the first call of {@link #factory()} or any method
+ * creating a client, and reused afterwards. Configuration methods cannot be called after that.
+ */
+public final class StandaloneControllerClients {
+
+    private final Object[] controllers;
+    private final List<Object> controllerAdvice = new ArrayList<>();
+    private final List<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
+    private final List<Consumer<StandaloneMockMvcBuilder>> mockMvcCustomizers = new ArrayList<>();
+    private JsonMapper objectMapper;
+    private ControllerClientFactory factory;
+
+    StandaloneControllerClients(Object[] controllers) {
+        if (controllers.length == 0) {
+            throw new IllegalArgumentException("At least one controller is required");
+        }
+        this.controllers = controllers.clone();
+    }
+
+    /**
+     * Registers {@code @ControllerAdvice} instances, such as exception handlers.
+     */
+    public StandaloneControllerClients controllerAdvice(Object... controllerAdvice) {
+        checkNotBuilt();
+        this.controllerAdvice.addAll(List.of(controllerAdvice));
+        return this;
+    }
+
+    /**
+     * Sets the message converters, replacing the default ones.
+     */
+    public StandaloneControllerClients messageConverters(HttpMessageConverter<?>... messageConverters) {
+        checkNotBuilt();
+        this.messageConverters.addAll(List.of(messageConverters));
+        return this;
+    }
+
+    /**
+     * Sets the mapper used to write request bodies and read responses. Unless message converters
+     * are set explicitly, the controllers use it as well. Defaults to a mapper with default settings.
+     */
+    public StandaloneControllerClients objectMapper(JsonMapper objectMapper) {
+        checkNotBuilt();
+        this.objectMapper = objectMapper;
+        return this;
+    }
+
+    /**
+     * Applies further configuration to the underlying {@link StandaloneMockMvcBuilder}, e.g.
+     * validators, interceptors or filters.
+     */
+    public StandaloneControllerClients customizeMockMvc(Consumer<StandaloneMockMvcBuilder> customizer) {
+        checkNotBuilt();
+        mockMvcCustomizers.add(customizer);
+        return this;
+    }
+
+    /**
+     * Returns the factory backed by the standalone {@code MockMvc}, building it on the first call.
+     */
+    public synchronized ControllerClientFactory factory() {
+        if (factory == null) {
+            var mapper = objectMapper != null ? objectMapper : JsonMapper.builder().build();
+            var builder = MockMvcBuilders.standaloneSetup(controllers)
+                    .setControllerAdvice(controllerAdvice.toArray())
+                    .setMessageConverters(converters(mapper).toArray(HttpMessageConverter[]::new));
+            mockMvcCustomizers.forEach(customizer -> customizer.accept(builder));
+            factory = new ControllerClientFactory(mapper, builder.build());
+        }
+        return factory;
+    }
+
+    /**
+     * Same as {@link ControllerClientFactory#create(Class)}.
+     */
+    public <T> T create(Class<T> clazz) {
+        return factory().create(clazz);
+    }
+
+    /**
+     * Same as {@link ControllerClientFactory#builder(Class)}.
+     */
+    public <T> ControllerClientBuilder<T> builder(Class<T> clazz) {
+        return factory().builder(clazz);
+    }
+
+    /**
+     * Same as {@link ControllerClientFactory#caller(Class)}.
+     */
+    public <T> ControllerClientCaller<T> caller(Class<T> clazz) {
+        return factory().caller(clazz);
+    }
+
+    /**
+     * Same as {@link ControllerClientFactory#respondingClient(Class)}.
+     */
+    public <T> RespondingControllerClient<T> respondingClient(Class<T> clazz) {
+        return factory().respondingClient(clazz);
+    }
+
+    /**
+     * Returns the converters set explicitly, or Spring's defaults with the JSON converter using the
+     * given mapper.
+     */
+    private List<HttpMessageConverter<?>> converters(JsonMapper mapper) {
+        if (!messageConverters.isEmpty()) {
+            return messageConverters;
+        }
+        var converters = new ArrayList<HttpMessageConverter<?>>();
+        HttpMessageConverters.forServer()
+                .registerDefaults()
+                .withJsonConverter(new JacksonJsonHttpMessageConverter(mapper))
+                .build()
+                .forEach(converters::add);
+        return converters;
+    }
+
+    private synchronized void checkNotBuilt() {
+        if (factory != null) {
+            throw new IllegalStateException("Standalone MockMvc has already been built");
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import jakarta.servlet.http.Cookie;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.MatrixVariable;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Built-in {@link ArgumentBinder ArgumentBinders}.
+ */
+final class StandardArgumentBinders {
+
+    private static final boolean SPRING_DATA_PRESENT = ClassUtils.isPresent(
+            "org.springframework.data.domain.Pageable", StandardArgumentBinders.class.getClassLoader());
+
+    private StandardArgumentBinders() {
+    }
+
+    /**
+     * Returns the built-in binders in the order they are consulted.
+     */
+    static List<ArgumentBinder> create(ObjectMapper objectMapper) {
+        var binders = new ArrayList<>(List.<ArgumentBinder>of(
+                StandardArgumentBinders::pathVariable,
+                StandardArgumentBinders::matrixVariable,
+                StandardArgumentBinders::requestParam,
+                StandardArgumentBinders::requestHeader,
+                StandardArgumentBinders::cookieValue,
+                parameter -> requestBody(parameter, objectMapper),
+                new ModelAttributeArgumentBinder(),
+                StandardArgumentBinders::inputStream));
+        if (SPRING_DATA_PRESENT) {
+            binders.add(new PageableArgumentBinder());
+        }
+        return List.copyOf(binders);
+    }
+
+    private static ArgumentBinding pathVariable(MethodParameter parameter) {
+        var annotation = parameter.getParameterAnnotation(PathVariable.class);
+        if (annotation == null) {
+            return null;
+        }
+        var name = name(parameter, annotation.name(), annotation.value());
+        return (value, request) -> {
+            if (value == null) {
+                var method = parameter.getMethod();
+                throw new IllegalArgumentException(
+                        "Path variable '" + name + "' cannot be null for " +
+                                method.getDeclaringClass().getName() + "#" + method.getName() + "(...)"
+                );
+            }
+            request.pathVariable(name, value);
+        };
+    }
+
+    private static ArgumentBinding matrixVariable(MethodParameter parameter) {
+        var annotation = parameter.getParameterAnnotation(MatrixVariable.class);
+        if (annotation == null) {
+            return null;
+        }
+        var name = name(parameter, annotation.name(), annotation.value());
+        var pathVariable = ValueConstants.DEFAULT_NONE.equals(annotation.pathVar()) ? null : annotation.pathVar();
+        return (value, request) -> {
+            if (value == null) {
+                return;
+            }
+            for (var element : toStrings(value)) {
+                request.matrixVariable(pathVariable, name, element);
+            }
+        };
+    }
+
+    private static ArgumentBinding requestParam(MethodParameter parameter) {
+        var annotation = parameter.getParameterAnnotation(RequestParam.class);
+        if (annotation == null) {
+            return null;
+        }
+        if (Map.class.isAssignableFrom(parameter.getParameterType())) {
+            return (value, request) -> {
+                if (value != null) {
+                    ((Map<?, ?>) value).forEach((key, entry) -> param(request, key.toString(), entry));
+                }
+            };
+        }
+        var name = name(parameter, annotation.name(), annotation.value());
+        return (value, request) -> param(request, name, value);
+    }
+
+    private static ArgumentBinding requestHeader(MethodParameter parameter) {
+        var annotation = parameter.getParameterAnnotation(RequestHeader.class);
+        if (annotation == null) {
+            return null;
+        }
+        if (Map.class.isAssignableFrom(parameter.getParameterType())) {
+            return (value, request) -> {
+                if (value != null) {
+                    ((Map<?, ?>) value).forEach((key, entry) -> {
+                        if (entry != null) {
+                            request.header(key.toString(), toStrings(entry));
+                        }
+                    });
+                }
+            };
+        }
+        var name = name(parameter, annotation.name(), annotation.value());
+        return (value, request) -> {
+            if (value != null) {
+                request.header(name, toStrings(value));
+            }
+        };
+    }
+
+    private static ArgumentBinding cookieValue(MethodParameter parameter) {
+        var annotation = parameter.getParameterAnnotation(CookieValue.class);
+        if (annotation == null) {
+            return null;
+        }
+        var name = name(parameter, annotation.name(), annotation.value());
+        return (value, request) -> {
+            if (value instanceof Cookie cookie) {
+                request.cookie(cookie);
+            } else if (value != null) {
+                request.cookie(new Cookie(name, value.toString()));
+            }
+        };
+    }
+
+    private static ArgumentBinding requestBody(MethodParameter parameter, ObjectMapper objectMapper) {
+        if (!parameter.hasParameterAnnotation(RequestBody.class)) {
+            return null;
+        }
+        return (value, request) -> {
+            if (value != null) {
+                request.content(objectMapper.writeValueAsBytes(value), MediaType.APPLICATION_JSON);
+            }
+        };
+    }
+
+    private static ArgumentBinding inputStream(MethodParameter parameter) {
+        if (!InputStream.class.isAssignableFrom(parameter.getParameterType())) {
+            return null;
+        }
+        return (value, request) -> {
+            if (value instanceof InputStream inputStream) {
+                request.content(inputStream.readAllBytes(), MediaType.TEXT_PLAIN);
+            }
+        };
+    }
+
+    /**
+     * Adds a parameter value: files become multipart files, collections and arrays become multiple
+     * values and {@code null} is skipped.
+     */
+    static void param(ControllerRequest request, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof MockMultipartFile multipartFile) {
+            request.file(multipartFile);
+            return;
+        }
+        request.param(name, toStrings(value));
+    }
+
+    static String[] toStrings(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.stream()
+                    .map(v -> v == null ? "" : v.toString())
+                    .toArray(String[]::new);
+        }
+        if (value.getClass().isArray()) {
+            int len = Array.getLength(value);
+            String[] values = new String[len];
+            for (int i = 0; i < len; i++) {
+                Object elt = Array.get(value, i);
+                values[i] = elt == null ? "" : elt.toString();
+            }
+            return values;
+        }
+        return new String[]{value.toString()};
+    }
+
+    /**
+     * Resolves the name from the {@code name}/{@code value} alias pair of a web annotation, falling
+     * back to the parameter name.
+     */
+    static String name(MethodParameter parameter, String name, String value) {
+        if (!name.isEmpty()) {
+            return name;
+        }
+        if (!value.isEmpty()) {
+            return value;
+        }
+        var parameterName = parameter.getParameterName();
+        if (parameterName == null) {
+            var method = parameter.getMethod();
+            throw new IllegalStateException(
+                    "Name of parameter " + parameter.getParameterIndex() + " of " +
+                            method.getDeclaringClass().getName() + "#" + method.getName() +
+                            " is not available, compile with -parameters or name it in the annotation");
+        }
+        return parameterName;
+    }
+}
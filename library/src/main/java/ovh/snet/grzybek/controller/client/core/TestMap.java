@@ -0,0 +1,173 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.util.ClassUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects which test classes called which controller methods, and which classes every called
+ * controller depends on, for the controller-client Gradle plugin to select the tests affected by a
+ * change.
+ *
+ * <p>Collection is enabled by the {@value #RESULTS_DIR_PROPERTY} system property, which the plugin
+ * sets on every test task. Each forked test JVM writes its own file into that directory when it
+ * exits:
+ *
+ * <pre>{@code
+ * {"tests": {"com.example.MyControllerTest": ["com.example.MyController#search"]},
+ *  "dependencies": {"com.example.MyController": ["com.example.SearchService"]}}
+ * }</pre>
+ *
+ * <p>The dependencies of a controller are the beans it depends on in the application context of
+ * the test, transitively, including their interfaces and superclasses. They are resolved in every
+ * application context the controller is called in, and the dependencies found in all of them are
+ * written. Calls are attributed to the test class running on the calling thread, or on the thread
+ * that started it.
+ */
+final class TestMap {
+
+    static final String RESULTS_DIR_PROPERTY = "controller-client.test-map.results-dir";
+
+    private static final String RESULTS_DIR = System.getProperty(RESULTS_DIR_PROPERTY);
+    private static final InheritableThreadLocal<TestScope> CURRENT = new InheritableThreadLocal<>();
+    private static final Map<String, Set<String>> OPERATIONS = new ConcurrentHashMap<>();
+    private static final Map<String, Set<String>> DEPENDENCIES = new ConcurrentHashMap<>();
+    // Controllers whose dependencies were resolved, per bean factory; weak so closed contexts go away
+    private static final Map<ConfigurableListableBeanFactory, Set<Class<?>>> RESOLVED = new WeakHashMap<>();
+
+    static {
+        if (RESULTS_DIR != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(TestMap::write, "controller-client-test-map"));
+        }
+    }
+
+    private TestMap() {
+    }
+
+    static boolean isEnabled() {
+        return RESULTS_DIR != null;
+    }
+
+    /**
+     * Attributes the calls made on the current thread to the given test class.
+     *
+     * @param beanFactory the bean factory of the test's application context, or {@code null} if not
+     *                    loaded yet
+     */
+    static void enterTest(Class<?> testClass, ConfigurableListableBeanFactory beanFactory) {
+        while (testClass.getEnclosingClass() != null) {
+            // Nested test classes are selected through their top-level class
+            testClass = testClass.getEnclosingClass();
+        }
+        CURRENT.set(new TestScope(testClass.getName(), beanFactory));
+    }
+
+    static void exitTest() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Records a call of a controller method by the current test.
+     */
+    static void record(Class<?> controller, String operation) {
+        if (RESULTS_DIR == null) {
+            return;
+        }
+        var scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        OPERATIONS.computeIfAbsent(scope.testClass(), test -> ConcurrentHashMap.newKeySet()).add(operation);
+        if (scope.beanFactory() != null && resolve(scope.beanFactory(), controller)) {
+            DEPENDENCIES.computeIfAbsent(controller.getName(), name -> ConcurrentHashMap.newKeySet())
+                    .addAll(dependencies(controller, scope.beanFactory()));
+        }
+    }
+
+    /**
+     * Returns whether the dependencies of the controller still have to be resolved in the bean factory.
+     */
+    private static boolean resolve(ConfigurableListableBeanFactory beanFactory, Class<?> controller) {
+        synchronized (RESOLVED) {
+            return RESOLVED.computeIfAbsent(beanFactory, factory -> new HashSet<>()).add(controller);
+        }
+    }
+
+    private static Set<String> dependencies(Class<?> controller, ConfigurableListableBeanFactory beanFactory) {
+        var classes = new TreeSet<String>();
+        var visited = new HashSet<String>();
+        var pending = new ArrayDeque<String>();
+        for (var name : beanFactory.getBeanNamesForType(controller, true, false)) {
+            pending.add(name);
+        }
+        while (!pending.isEmpty()) {
+            var name = pending.poll();
+            if (!visited.add(name)) {
+                continue;
+            }
+            var type = beanFactory.getType(name, false);
+            if (type != null) {
+                addTypeHierarchy(ClassUtils.getUserClass(type), classes);
+            }
+            for (var dependency : beanFactory.getDependenciesForBean(name)) {
+                pending.add(dependency);
+            }
+        }
+        classes.remove(controller.getName());
+        return classes;
+    }
+
+    private static void addTypeHierarchy(Class<?> type, Set<String> classes) {
+        if (type == null || type == Object.class || isLibraryClass(type) || !classes.add(type.getName())) {
+            return;
+        }
+        addTypeHierarchy(type.getSuperclass(), classes);
+        for (var implemented : type.getInterfaces()) {
+            addTypeHierarchy(implemented, classes);
+        }
+    }
+
+    /**
+     * JDK and framework classes are left out, as they never show up as changed classes of a project.
+     */
+    private static boolean isLibraryClass(Class<?> type) {
+        var name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jakarta.")
+                || name.startsWith("org.springframework.");
+    }
+
+    private static void write() {
+        if (OPERATIONS.isEmpty()) {
+            return;
+        }
+        var tests = new TreeMap<String, Object>();
+        OPERATIONS.forEach((test, operations) -> tests.put(test, new TreeSet<>(operations)));
+        var dependencies = new TreeMap<String, Object>();
+        DEPENDENCIES.forEach((controller, classes) -> dependencies.put(controller, new TreeSet<>(classes)));
+
+        var result = new LinkedHashMap<String, Object>();
+        result.put("tests", tests);
+        result.put("dependencies", dependencies);
+
+        var directory = new File(RESULTS_DIR);
+        directory.mkdirs();
+        var file = new File(directory, "test-map-" + ManagementFactory.getRuntimeMXBean().getPid() + "-" + UUID.randomUUID() + ".json");
+        JsonMapper.builder().build().writeValue(file, result);
+    }
+
+    private record TestScope(String testClass, ConfigurableListableBeanFactory beanFactory) {
+    }
+}
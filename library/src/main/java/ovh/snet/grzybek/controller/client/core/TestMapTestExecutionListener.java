@@ -0,0 +1,40 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+/**
+ * Attributes the controller calls of every test to its test class for the {@link TestMap}.
+ */
+class TestMapTestExecutionListener extends AbstractTestExecutionListener {
+
+    @Override
+    public int getOrder() {
+        return 5000;
+    }
+
+    @Override
+    public void beforeTestClass(TestContext testContext) {
+        if (TestMap.isEnabled()) {
+            TestMap.enterTest(testContext.getTestClass(), null);
+        }
+    }
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        if (TestMap.isEnabled()) {
+            var beanFactory = testContext.getApplicationContext() instanceof ConfigurableApplicationContext context
+                    ? context.getBeanFactory()
+                    : null;
+            TestMap.enterTest(testContext.getTestClass(), beanFactory);
+        }
+    }
+
+    @Override
+    public void afterTestClass(TestContext testContext) {
+        if (TestMap.isEnabled()) {
+            TestMap.exitTest();
+        }
+    }
+}
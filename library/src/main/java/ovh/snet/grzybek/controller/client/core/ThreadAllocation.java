@@ -0,0 +1,43 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Access to the bytes allocated by the current thread, as reported by {@link
+ * com.sun.management.ThreadMXBean}. Not every JVM supports it, in which case {@link
+ * #currentThreadAllocatedBytes()} returns {@code -1}.
+ */
+final class ThreadAllocation {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = lookup();
+
+    private ThreadAllocation() {
+    }
+
+    static boolean isSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * Returns the total number of bytes allocated by the current thread so far, or {@code -1} if
+     * the measurement is not supported.
+     */
+    static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean lookup() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported()) {
+                if (!bean.isThreadAllocatedMemoryEnabled()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                }
+                return bean;
+            }
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            // jdk.management is not available, allocation is not measured
+        }
+        return null;
+    }
+}
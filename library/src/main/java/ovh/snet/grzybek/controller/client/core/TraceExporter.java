@@ -0,0 +1,142 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects spans of traced calls and writes them to a local file in the OTLP/JSON lines format of
+ * the OpenTelemetry Collector file exporter, which trace viewers such as Jaeger can import without
+ * running a collector.
+ *
+ * <p>There is one exporter per application context. Spans are written in chunks, each appended as
+ * one line, and dropped once written, so a long test run does not keep its traces in memory. The
+ * first exporter of a file in the JVM truncates it, further exporters of the same file append to it.
+ */
+final class TraceExporter {
+
+    private static final Set<Path> STARTED_FILES = ConcurrentHashMap.newKeySet();
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int SPAN_KIND_CLIENT = 3;
+    private static final int STATUS_CODE_ERROR = 2;
+
+    private final Path file;
+    private final int chunkSize;
+    private final ConcurrentLinkedQueue<Span> spans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * A finished span.
+     *
+     * @param parentSpanId the parent span, or {@code null} for the root span of a call
+     * @param client       whether the span covers the request sent to the server
+     */
+    record Span(String traceId, String spanId, String parentSpanId, String name, boolean client,
+                long startEpochNanos, long endEpochNanos, Map<String, String> attributes, boolean error) {
+    }
+
+    /**
+     * @param chunkSize the number of collected spans written at once
+     */
+    TraceExporter(Path file, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1 but was " + chunkSize);
+        }
+        this.file = file.toAbsolutePath();
+        this.chunkSize = chunkSize;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void export(List<Span> finished) {
+        if (closed) {
+            return;
+        }
+        spans.addAll(finished);
+        if (pending.addAndGet(finished.size()) >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the remaining spans and drops the spans of calls that end afterwards.
+     */
+    void close() {
+        closed = true;
+        flush();
+    }
+
+    synchronized void flush() {
+        var otlpSpans = new ArrayList<Map<String, Object>>();
+        Span span;
+        while ((span = spans.poll()) != null) {
+            otlpSpans.add(toOtlp(span));
+        }
+        pending.addAndGet(-otlpSpans.size());
+        if (otlpSpans.isEmpty()) {
+            return;
+        }
+        var request = Map.of("resourceSpans", List.of(Map.of(
+                "resource", Map.of("attributes", attributes(Map.of("service.name", "controller-client"))),
+                "scopeSpans", List.of(Map.of(
+                        "scope", Map.of("name", "ovh.snet.grzybek.controller-client"),
+                        "spans", otlpSpans)))));
+        append(JsonMapper.builder().build().writeValueAsString(request));
+    }
+
+    private void append(String line) {
+        // Exporters of different contexts may share the file
+        synchronized (STARTED_FILES) {
+            OpenOption[] options = STARTED_FILES.add(file)
+                    ? new OpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE}
+                    : new OpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.APPEND};
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                Files.writeString(file, line + "\n", options);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to write traces to " + file, e);
+            }
+        }
+    }
+
+    private static Map<String, Object> toOtlp(Span span) {
+        var result = new LinkedHashMap<String, Object>();
+        result.put("traceId", span.traceId());
+        result.put("spanId", span.spanId());
+        if (span.parentSpanId() != null) {
+            result.put("parentSpanId", span.parentSpanId());
+        }
+        result.put("name", span.name());
+        result.put("kind", span.client() ? SPAN_KIND_CLIENT : SPAN_KIND_INTERNAL);
+        // uint64 values are strings in OTLP/JSON
+        result.put("startTimeUnixNano", String.valueOf(span.startEpochNanos()));
+        result.put("endTimeUnixNano", String.valueOf(span.endEpochNanos()));
+        result.put("attributes", attributes(span.attributes()));
+        if (span.error()) {
+            result.put("status", Map.of("code", STATUS_CODE_ERROR));
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> attributes(Map<String, String> attributes) {
+        var result = new ArrayList<Map<String, Object>>();
+        attributes.forEach((key, value) -> result.add(Map.of("key", key, "value", Map.of("stringValue", value))));
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package ovh.snet.grzybek.controller.client.core;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Traces every call of the clients of this application context and writes the spans to the file
+ * set with the {@code controller-client.tracing.file} property, e.g. {@code
+ * build/traces/controller-client.jsonl}. The spans are written whenever {@code
+ * controller-client.tracing.chunk-size} spans, 1024 by default, have been collected, and when the
+ * context closes.
+ */
+@Component
+@ConditionalOnProperty(prefix = "controller-client.tracing", name = "file")
+class TracingConfiguration implements DisposableBean {
+
+    private final TraceExporter exporter;
+
+    TracingConfiguration(@Value("${controller-client.tracing.file}") String file,
+                         @Value("${controller-client.tracing.chunk-size:1024}") int chunkSize) {
+        this.exporter = new TraceExporter(Path.of(file), chunkSize);
+    }
+
+    TraceExporter exporter() {
+        return exporter;
+    }
+
+    @Override
+    public void destroy() {
+        exporter.close();
+    }
+}
@@ -0,0 +1,66 @@
+package ovh.snet.grzybek.controller.client.core.annotation;
+
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.jupiter.api.extension.TestExecutionExceptionHandler;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import ovh.snet.grzybek.controller.client.core.ExchangeLog;
+
+/**
+ * JUnit 5 extension resolving test method parameters annotated with {@link AutowireControllerClient},
+ * {@link AutowireControllerClientCaller} or {@link AutowireRespondingControllerClient}.
+ *
+ * <p>Every test invocation gets its own client, so tests can run with
+ * {@code junit.jupiter.execution.parallel.enabled} in {@code CONCURRENT} mode without sharing any
+ * client between them, while the {@code MockMvc} instance and the generated proxy classes are
+ * reused. Annotated fields keep being injected by the application context; the clients put into
+ * them are safe to share as well, since callers keep the call being configured per thread.
+ *
+ * <pre>{@code
+ * @SpringBootTest
+ * @AutoConfigureMockMvc
+ * @ExtendWith(ControllerClientExtension.class)
+ * @Execution(ExecutionMode.CONCURRENT)
+ * class MyControllerTest {
+ *
+ *     @Test
+ *     void search(@AutowireControllerClientCaller ControllerClientCaller<MyController> caller) {
+ *         caller.when(MyController::search).thenStatus(200).execute();
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>The extension also starts every test with an empty {@link ExchangeLog} and attaches the
+ * exchanges made by a failing test to its failure, including failures of assertions made outside
+ * the controller clients.
+ */
+public class ControllerClientExtension implements ParameterResolver, BeforeEachCallback,
+        TestExecutionExceptionHandler {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        ExchangeLog.clear();
+    }
+
+    @Override
+    public void handleTestExecutionException(ExtensionContext context, Throwable throwable) throws Throwable {
+        ExchangeLog.attachTo(throwable);
+        throw throwable;
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return ControllerClientInjector.isAnnotated(parameterContext.getParameter());
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        var factory = SpringExtension.getApplicationContext(extensionContext).getBean(ControllerClientFactory.class);
+        var parameter = parameterContext.getParameter();
+        return new ControllerClientInjector(factory)
+                .createClient(parameter, parameter.getType(), parameter.getParameterizedType());
+    }
+}
@@ -0,0 +1,94 @@
+package ovh.snet.grzybek.controller.client.core.annotation;
+
+import ovh.snet.grzybek.controller.client.core.ControllerClientBuilder;
+import ovh.snet.grzybek.controller.client.core.ControllerClientCaller;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import ovh.snet.grzybek.controller.client.core.RespondingControllerClient;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+/**
+ * Creates clients for fields and parameters annotated with {@link AutowireControllerClient},
+ * {@link AutowireControllerClientCaller} or {@link AutowireRespondingControllerClient}.
+ */
+class ControllerClientInjector {
+
+    private final ControllerClientFactory controllerClientFactory;
+
+    ControllerClientInjector(ControllerClientFactory controllerClientFactory) {
+        this.controllerClientFactory = controllerClientFactory;
+    }
+
+    static boolean isAnnotated(AnnotatedElement element) {
+        return element.isAnnotationPresent(AutowireControllerClient.class)
+                || element.isAnnotationPresent(AutowireControllerClientCaller.class)
+                || element.isAnnotationPresent(AutowireRespondingControllerClient.class);
+    }
+
+    /**
+     * Creates the client for the annotated element.
+     *
+     * @param element     the annotated field or parameter
+     * @param type        the declared type of the element
+     * @param genericType the declared generic type of the element
+     * @return the client, or {@code null} if the element is not annotated
+     */
+    Object createClient(AnnotatedElement element, Class<?> type, Type genericType) {
+        if (element.isAnnotationPresent(AutowireControllerClient.class)) {
+            return createClient(element, AutowireControllerClient.class, type,
+                    (factory, builder) -> builder.build());
+        } else if (element.isAnnotationPresent(AutowireControllerClientCaller.class)) {
+            return createClient(element, AutowireControllerClientCaller.class,
+                    getClassType(genericType, ControllerClientCaller.class), ControllerClientFactory::caller);
+        } else if (element.isAnnotationPresent(AutowireRespondingControllerClient.class)) {
+            return createClient(element, AutowireRespondingControllerClient.class,
+                    getClassType(genericType, RespondingControllerClient.class), ControllerClientFactory::respondingClient);
+        }
+        return null;
+    }
+
+    private Object createClient(AnnotatedElement element, Class<? extends Annotation> annotationClass, Class<?> clientType,
+                                BiFunction<ControllerClientFactory, ControllerClientBuilder<Object>, Object> clientFactoryFunction) {
+        final var builder = (ControllerClientBuilder<Object>) controllerClientFactory.builder(clientType);
+        var annotation = element.getAnnotation(annotationClass);
+        var customizer = instantiateCustomizer(getCustomizerClass(annotation));
+        customizer.ifPresent(c -> c.customize(builder));
+        return clientFactoryFunction.apply(controllerClientFactory, builder);
+    }
+
+    private static Class<?> getClassType(Type genericType, Type classType) {
+        ParameterizedType parameterizedType = (ParameterizedType) genericType;
+        Type rawType = parameterizedType.getRawType();
+        assert rawType == classType;
+        Type[] typeArguments = parameterizedType.getActualTypeArguments();
+        return (Class<?>) typeArguments[0];
+    }
+
+    private Class<? extends ControllerClientAnnotationCustomizer> getCustomizerClass(Annotation annotation) {
+        try {
+            Method method = annotation.annotationType().getMethod("customizer");
+            return (Class<? extends ControllerClientAnnotationCustomizer>) method.invoke(annotation);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get customizer class from annotation: "
+                    + annotation.annotationType().getName(), e);
+        }
+    }
+
+    private Optional<ControllerClientAnnotationCustomizer> instantiateCustomizer(
+            Class<? extends ControllerClientAnnotationCustomizer> customizerClass) {
+        try {
+            if (customizerClass == DefaultControllerClientAnnotationCustomizer.class) {
+                return Optional.empty();
+            }
+            return Optional.of(customizerClass.getDeclaredConstructor().newInstance());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to instantiate customizer: " + customizerClass.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ovh.snet.grzybek.controller.client.core.annotation;
+
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+import ovh.snet.grzybek.controller.client.core.ControllerClientWarmUp;
+
+public interface ControllerClientWarmUpCustomizer {
+
+    /**
+     * Creates the warm-up to execute. Iterations and stability settings of {@link WarmUpControllerClient}
+     * are applied to it.
+     */
+    ControllerClientWarmUp<?> warmUp(ControllerClientFactory factory);
+}
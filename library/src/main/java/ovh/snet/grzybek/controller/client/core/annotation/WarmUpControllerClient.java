@@ -0,0 +1,30 @@
+package ovh.snet.grzybek.controller.client.core.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Warms up controller endpoints once per application context before the tests of the annotated
+ * class run. The calls are defined by the given {@link ControllerClientWarmUpCustomizer} classes.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+public @interface WarmUpControllerClient {
+
+    Class<? extends ControllerClientWarmUpCustomizer>[] value();
+
+    /**
+     * Number of iterations, or the upper bound when {@link #untilStable()} is set. Defaults to the
+     * iterations set by the customizer, or those of {@code ControllerClientWarmUp} if it sets none.
+     */
+    int iterations() default -1;
+
+    /**
+     * Stops the warm-up as soon as the latency of the calls stabilises.
+     */
+    boolean untilStable() default false;
+}
@@ -0,0 +1,67 @@
+package ovh.snet.grzybek.controller.client.core.annotation;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.TestContextAnnotationUtils;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+import ovh.snet.grzybek.controller.client.core.ControllerClientFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executes the warm-ups declared with {@link WarmUpControllerClient} before the first test of a
+ * class. Every customizer runs once per application context, as each context has its own MockMvc
+ * and beans to warm up.
+ */
+class WarmUpTestExecutionListener extends AbstractTestExecutionListener {
+
+    // Weak, so closed contexts go away
+    private static final Map<ApplicationContext, Set<Class<?>>> WARMED_UP =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Override
+    public int getOrder() {
+        return 5000;
+    }
+
+    @Override
+    public void beforeTestClass(TestContext testContext) {
+        var annotation = TestContextAnnotationUtils.findMergedAnnotation(
+                testContext.getTestClass(), WarmUpControllerClient.class);
+        if (annotation == null) {
+            return;
+        }
+
+        var applicationContext = testContext.getApplicationContext();
+        var warmedUp = WARMED_UP.computeIfAbsent(applicationContext, context -> ConcurrentHashMap.newKeySet());
+        var factory = applicationContext.getBean(ControllerClientFactory.class);
+        for (var customizerClass : annotation.value()) {
+            if (warmedUp.contains(customizerClass)) {
+                continue;
+            }
+            var warmUp = instantiateCustomizer(customizerClass).warmUp(factory);
+            if (annotation.iterations() != -1) {
+                warmUp.iterations(annotation.iterations());
+            }
+            if (annotation.untilStable()) {
+                warmUp.untilStable();
+            }
+            warmUp.execute();
+            // Marked only once it succeeded, so a failed warm-up is retried by the next class
+            warmedUp.add(customizerClass);
+        }
+    }
+
+    private static ControllerClientWarmUpCustomizer instantiateCustomizer(
+            Class<? extends ControllerClientWarmUpCustomizer> customizerClass) {
+        try {
+            return customizerClass.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to instantiate warm-up customizer: " + customizerClass.getName(), e);
+        }
+    }
+}
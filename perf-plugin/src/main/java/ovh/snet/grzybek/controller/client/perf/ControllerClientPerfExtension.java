@@ -0,0 +1,78 @@
+package ovh.snet.grzybek.controller.client.perf;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+
+/**
+ * Configuration of the {@code controllerClientPerf} extension.
+ *
+ * <pre>{@code
+ * controllerClientPerf {
+ *     baselineFile = file('perf-baseline.json')
+ *     maxLatencyRegression = 0.25d
+ *     latencyRegressionOverrides.put('com.example.MyController#search', 0.5d)
+ * }
+ * }</pre>
+ */
+public abstract class ControllerClientPerfExtension {
+
+    /**
+     * The committed baseline. Defaults to {@code perf-baseline.json} in the project directory.
+     */
+    public abstract RegularFileProperty getBaselineFile();
+
+    /**
+     * Directory the test JVMs write their results into, in a subdirectory per test task. Defaults to
+     * {@code build/controller-client-perf/results}.
+     */
+    public abstract DirectoryProperty getResultsDirectory();
+
+    /**
+     * Report comparing the results with the baseline. Defaults to {@code
+     * build/reports/controller-client-perf/diff.md}.
+     */
+    public abstract RegularFileProperty getReportFile();
+
+    /**
+     * Latency percentile compared with the baseline. Defaults to {@code 0.99}.
+     */
+    public abstract Property<Double> getPercentile();
+
+    /**
+     * Allowed relative latency increase, e.g. {@code 0.25} for 25%. Defaults to {@code 0.25}.
+     */
+    public abstract Property<Double> getMaxLatencyRegression();
+
+    /**
+     * Allowed relative increase of the median allocated bytes. Defaults to {@code 0.10}.
+     */
+    public abstract Property<Double> getMaxAllocationRegression();
+
+    /**
+     * Allowed latency increase per controller method, keyed by {@code ControllerClass#method}. Also
+     * applies to the stress levels of the method, e.g. {@code ControllerClass#method@threads=8},
+     * unless they have an entry of their own.
+     */
+    public abstract MapProperty<String, Double> getLatencyRegressionOverrides();
+
+    /**
+     * Allowed allocation increase per controller method, keyed by {@code ControllerClass#method}, as
+     * for {@link #getLatencyRegressionOverrides()}.
+     */
+    public abstract MapProperty<String, Double> getAllocationRegressionOverrides();
+
+    /**
+     * Index of the controller methods called by each test class, used to select the tests affected
+     * by a change. Defaults to {@code build/controller-client-test-map/index.json}; point it at a
+     * location cached between CI runs to select tests on a fresh checkout.
+     */
+    public abstract RegularFileProperty getTestMapFile();
+
+    /**
+     * Directory the test JVMs write the controller methods called by each test into, in a
+     * subdirectory per test task. Defaults to {@code build/controller-client-test-map/results}.
+     */
+    public abstract DirectoryProperty getTestMapResultsDirectory();
+}
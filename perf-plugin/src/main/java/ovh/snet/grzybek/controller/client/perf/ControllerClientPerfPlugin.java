@@ -0,0 +1,156 @@
+package ovh.snet.grzybek.controller.client.perf;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
+import org.gradle.api.plugins.JavaBasePlugin;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.process.CommandLineArgumentProvider;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Collects controller performance results from all test tasks, compares them with a committed
+ * baseline and fails {@code check} on regressions.
+ *
+ * <p>Tasks:
+ * <ul>
+ *   <li>{@code controllerClientPerfCheck} compares the results with the baseline and writes a diff
+ *       report; {@code check} depends on it.
+ *   <li>{@code controllerClientPerfBaseline} writes the results as the new baseline.
+ *   <li>{@code controllerClientTestMap} merges which test classes called which controller methods
+ *       into the test map; every test task is finalized by it.
+ *   <li>{@code controllerClientSelectTests} lists the test classes affected by changed classes.
+ * </ul>
+ *
+ * <p>With the {@value #CHANGED_PROPERTY} project property set to comma separated changed classes
+ * or source files, test tasks skip the test classes the test map knows to be unaffected by them,
+ * e.g. {@code ./gradlew test -PcontrollerClientChanged=src/main/java/com/example/MyService.java}.
+ * Test classes missing from the map, like plain unit tests, always run. Without a test map all
+ * tests run.
+ */
+public class ControllerClientPerfPlugin implements Plugin<Project> {
+
+    static final String CHANGED_PROPERTY = "controllerClientChanged";
+
+    @Override
+    public void apply(Project project) {
+        var extension = project.getExtensions().create("controllerClientPerf", ControllerClientPerfExtension.class);
+        var layout = project.getLayout();
+        extension.getBaselineFile().convention(layout.getProjectDirectory().file("perf-baseline.json"));
+        extension.getResultsDirectory().convention(layout.getBuildDirectory().dir("controller-client-perf/results"));
+        extension.getReportFile().convention(layout.getBuildDirectory().file("reports/controller-client-perf/diff.md"));
+        extension.getPercentile().convention(0.99);
+        extension.getMaxLatencyRegression().convention(0.25);
+        extension.getMaxAllocationRegression().convention(0.10);
+        extension.getTestMapFile().convention(layout.getBuildDirectory().file("controller-client-test-map/index.json"));
+        extension.getTestMapResultsDirectory().convention(layout.getBuildDirectory().dir("controller-client-test-map/results"));
+
+        var resultsDirectory = extension.getResultsDirectory();
+        var testMapResultsDirectory = extension.getTestMapResultsDirectory();
+        var testMap = project.getTasks().register("controllerClientTestMap", TestMapTask.class, task -> {
+            task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+            task.setDescription("Merges the controller methods called by each test class into the test map.");
+            task.getResultsDirectory().set(testMapResultsDirectory);
+            task.getTestMapFile().set(extension.getTestMapFile());
+            task.doNotTrackState("Merges the results of the latest test run");
+        });
+        project.getTasks().withType(Test.class).configureEach(test -> {
+            // Every task writes into its own directory, restored with the task's other outputs when
+            // it is up to date or taken from the build cache
+            var taskResults = resultsDirectory.dir(test.getName());
+            var taskTestMapResults = testMapResultsDirectory.dir(test.getName());
+            test.getOutputs().dir(taskResults).withPropertyName("controllerClientPerfResults");
+            test.getOutputs().dir(taskTestMapResults).withPropertyName("controllerClientTestMapResults");
+            test.getJvmArgumentProviders().add(new DirectoryArgument(PerfResults.RESULTS_DIR_PROPERTY, taskResults));
+            test.getJvmArgumentProviders().add(new DirectoryArgument(TestMap.RESULTS_DIR_PROPERTY, taskTestMapResults));
+            // Results of previous runs would be merged with the new ones
+            test.doFirst(task -> {
+                deleteResults(taskResults.get().getAsFile());
+                deleteResults(taskTestMapResults.get().getAsFile());
+            });
+            test.finalizedBy(testMap);
+        });
+
+        project.getTasks().register("controllerClientSelectTests", SelectTestsTask.class, task -> {
+            task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+            task.setDescription("Lists the test classes affected by the changed classes.");
+            task.getTestMapFile().set(extension.getTestMapFile());
+            task.getOutputFile().set(layout.getBuildDirectory().file("controller-client-test-map/selected-tests.txt"));
+            task.getUnaffectedFile().set(layout.getBuildDirectory().file("controller-client-test-map/unaffected-tests.txt"));
+            task.doNotTrackState("Selects from the latest test map");
+        });
+        project.afterEvaluate(evaluated -> {
+            var changed = project.findProperty(CHANGED_PROPERTY);
+            if (changed != null) {
+                selectTests(project, extension.getTestMapFile().get().getAsFile(), changed.toString());
+            }
+        });
+
+        var perfCheck = project.getTasks().register("controllerClientPerfCheck", PerfCheckTask.class, task -> {
+            task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+            task.setDescription("Compares controller performance results with the baseline.");
+            task.getResultsDirectory().set(resultsDirectory);
+            task.getBaselineFile().set(extension.getBaselineFile());
+            task.getReportFile().set(extension.getReportFile());
+            task.getPercentile().set(extension.getPercentile());
+            task.getMaxLatencyRegression().set(extension.getMaxLatencyRegression());
+            task.getMaxAllocationRegression().set(extension.getMaxAllocationRegression());
+            task.getLatencyRegressionOverrides().set(extension.getLatencyRegressionOverrides());
+            task.getAllocationRegressionOverrides().set(extension.getAllocationRegressionOverrides());
+            task.dependsOn(project.getTasks().withType(Test.class));
+            task.doNotTrackState("Compares the results of the latest test run");
+        });
+
+        project.getTasks().register("controllerClientPerfBaseline", PerfBaselineTask.class, task -> {
+            task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+            task.setDescription("Writes controller performance results as the new baseline.");
+            task.getResultsDirectory().set(resultsDirectory);
+            task.getBaselineFile().set(extension.getBaselineFile());
+            task.getPercentile().set(extension.getPercentile());
+            task.dependsOn(project.getTasks().withType(Test.class));
+            task.doNotTrackState("Writes the results of the latest test run");
+        });
+
+        project.getPlugins().withType(JavaBasePlugin.class, plugin ->
+                project.getTasks().named(JavaBasePlugin.CHECK_TASK_NAME).configure(check -> check.dependsOn(perfCheck)));
+    }
+
+    /**
+     * Skips the test classes of the test map that are not affected by the changed classes. Tests
+     * missing from the map always run.
+     */
+    private static void selectTests(Project project, File testMapFile, String changed) {
+        var testMap = TestMap.read(testMapFile);
+        if (testMap.isEmpty()) {
+            project.getLogger().lifecycle("No controller client test map at {}, running all tests", testMapFile);
+            return;
+        }
+        var unaffected = testMap.unaffected(TestMap.classNames(List.of(changed.split(","))));
+        project.getLogger().lifecycle("Skipping {} test classes not affected by the changes", unaffected.size());
+        project.getTasks().withType(Test.class).configureEach(test -> {
+            // All test classes of a task may be unaffected
+            test.getFilter().setFailOnNoMatchingTests(false);
+            unaffected.forEach(test.getFilter()::excludeTestsMatching);
+        });
+    }
+
+    private static void deleteResults(File directory) {
+        var files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files != null) {
+            for (var file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    private record DirectoryArgument(String property, Provider<Directory> directory) implements CommandLineArgumentProvider {
+
+        @Override
+        public Iterable<String> asArguments() {
+            return List.of("-D" + property + "=" + directory.get().getAsFile().getAbsolutePath());
+        }
+    }
+}
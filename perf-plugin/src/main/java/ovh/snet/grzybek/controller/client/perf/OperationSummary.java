@@ -0,0 +1,29 @@
+package ovh.snet.grzybek.controller.client.perf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Summary of all measured calls of a single controller method.
+ *
+ * @param samples        the number of measured calls
+ * @param latencyNanos   the latency at the configured percentile
+ * @param allocatedBytes the median allocated bytes, or {@code -1} if not measured
+ */
+record OperationSummary(long samples, long latencyNanos, long allocatedBytes) {
+
+    static OperationSummary fromMap(Map<?, ?> map) {
+        return new OperationSummary(
+                ((Number) map.get("samples")).longValue(),
+                ((Number) map.get("latencyNanos")).longValue(),
+                ((Number) map.get("allocatedBytes")).longValue());
+    }
+
+    Map<String, Object> toMap() {
+        var map = new LinkedHashMap<String, Object>();
+        map.put("samples", samples);
+        map.put("latencyNanos", latencyNanos);
+        map.put("allocatedBytes", allocatedBytes);
+        return map;
+    }
+}
@@ -0,0 +1,36 @@
+package ovh.snet.grzybek.controller.client.perf;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Writes the merged test results as the new baseline.
+ */
+public abstract class PerfBaselineTask extends DefaultTask {
+
+    @Internal
+    public abstract DirectoryProperty getResultsDirectory();
+
+    @Internal
+    public abstract RegularFileProperty getBaselineFile();
+
+    @Internal
+    public abstract Property<Double> getPercentile();
+
+    @TaskAction
+    public void writeBaseline() {
+        var current = PerfResults.load(getResultsDirectory().get().getAsFile(), getPercentile().get());
+        if (current.isEmpty()) {
+            throw new GradleException("No controller performance results found, the tests have to measure "
+                    + "calls with ControllerClientCaller.repeat(...) or its latency and allocation assertions");
+        }
+        var baselineFile = getBaselineFile().get().getAsFile();
+        PerfResults.writeBaseline(baselineFile, getPercentile().get(), current);
+        getLogger().lifecycle("Wrote baseline of {} controller methods to {}", current.size(), baselineFile);
+    }
+}
@@ -0,0 +1,167 @@
+package ovh.snet.grzybek.controller.client.perf;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compares the merged test results with the baseline, writes a diff report and fails on
+ * regressions beyond the configured thresholds.
+ */
+public abstract class PerfCheckTask extends DefaultTask {
+
+    @Internal
+    public abstract DirectoryProperty getResultsDirectory();
+
+    @Internal
+    public abstract RegularFileProperty getBaselineFile();
+
+    @Internal
+    public abstract RegularFileProperty getReportFile();
+
+    @Internal
+    public abstract Property<Double> getPercentile();
+
+    @Internal
+    public abstract Property<Double> getMaxLatencyRegression();
+
+    @Internal
+    public abstract Property<Double> getMaxAllocationRegression();
+
+    @Internal
+    public abstract MapProperty<String, Double> getLatencyRegressionOverrides();
+
+    @Internal
+    public abstract MapProperty<String, Double> getAllocationRegressionOverrides();
+
+    @TaskAction
+    public void check() {
+        var current = PerfResults.load(getResultsDirectory().get().getAsFile(), getPercentile().get());
+        var baselineFile = getBaselineFile().get().getAsFile();
+        if (!baselineFile.exists()) {
+            if (current.isEmpty()) {
+                getLogger().lifecycle("No controller performance results found");
+            } else {
+                getLogger().lifecycle("No controller performance baseline at {}, run controllerClientPerfBaseline to create it",
+                        baselineFile);
+            }
+            return;
+        }
+
+        var baseline = PerfResults.readBaseline(baselineFile);
+        var latencyOverrides = getLatencyRegressionOverrides().get();
+        var allocationOverrides = getAllocationRegressionOverrides().get();
+        var regressions = new ArrayList<String>();
+        var notMeasured = new ArrayList<String>();
+        var report = new StringBuilder()
+                .append("# Controller performance compared with baseline\n\n")
+                .append(String.format(Locale.ROOT, "Latency at p%s, allocation as median per call.%n%n",
+                        format(getPercentile().get() * 100)))
+                .append("| Operation | Latency baseline | Latency current | Change | Allocation baseline | Allocation current | Change |\n")
+                .append("|---|---|---|---|---|---|---|\n");
+
+        var operations = new TreeSet<String>();
+        operations.addAll(current.keySet());
+        operations.addAll(baseline.keySet());
+        for (var operation : operations) {
+            var before = baseline.get(operation);
+            var after = current.get(operation);
+            if (after == null) {
+                notMeasured.add(operation);
+            }
+            if (before == null || after == null) {
+                report.append(String.format(Locale.ROOT, "| %s | %s | %s | | %s | %s | |%n", operation,
+                        before == null ? "new" : millis(before.latencyNanos()),
+                        after == null ? "not measured" : millis(after.latencyNanos()),
+                        before == null ? "new" : bytes(before.allocatedBytes()),
+                        after == null ? "not measured" : bytes(after.allocatedBytes())));
+                continue;
+            }
+
+            var latencyChange = change(before.latencyNanos(), after.latencyNanos());
+            var allocationChange = before.allocatedBytes() < 0 || after.allocatedBytes() < 0
+                    ? Double.NaN
+                    : change(before.allocatedBytes(), after.allocatedBytes());
+            report.append(String.format(Locale.ROOT, "| %s | %s | %s | %s | %s | %s | %s |%n", operation,
+                    millis(before.latencyNanos()), millis(after.latencyNanos()), percent(latencyChange),
+                    bytes(before.allocatedBytes()), bytes(after.allocatedBytes()), percent(allocationChange)));
+
+            check(regressions, operation, "latency", latencyChange,
+                    threshold(latencyOverrides, operation, getMaxLatencyRegression().get()));
+            check(regressions, operation, "allocation", allocationChange,
+                    threshold(allocationOverrides, operation, getMaxAllocationRegression().get()));
+        }
+
+        if (!regressions.isEmpty()) {
+            report.append("\n## Regressions\n\n");
+            regressions.forEach(regression -> report.append("- ").append(regression).append('\n'));
+        }
+        if (!notMeasured.isEmpty()) {
+            report.append("\n## Not measured\n\n");
+            notMeasured.forEach(operation -> report.append("- ").append(operation).append('\n'));
+        }
+        var reportFile = getReportFile().get().getAsFile();
+        PerfResults.write(reportFile, report.toString());
+        if (!notMeasured.isEmpty()) {
+            // E.g. tests filtered out or not run in this build
+            getLogger().warn("{} of {} controller methods of the baseline have no results and were not compared, see {}",
+                    notMeasured.size(), baseline.size(), reportFile);
+        }
+
+        if (!regressions.isEmpty()) {
+            throw new GradleException("Controller performance regressed, see " + reportFile + ":\n  "
+                    + String.join("\n  ", regressions));
+        }
+    }
+
+    /**
+     * Looks the operation up, then the controller method of variants such as {@code
+     * MyController#search@threads=8}.
+     */
+    private static double threshold(Map<String, Double> overrides, String operation, double defaultThreshold) {
+        var override = overrides.get(operation);
+        int variant = operation.indexOf('@');
+        if (override == null && variant > 0) {
+            override = overrides.get(operation.substring(0, variant));
+        }
+        return override != null ? override : defaultThreshold;
+    }
+
+    private static void check(ArrayList<String> regressions, String operation, String metric, double change,
+                              double threshold) {
+        if (!Double.isNaN(change) && change > threshold) {
+            regressions.add(String.format(Locale.ROOT, "%s: %s increased by %s, allowed %s",
+                    operation, metric, percent(change), percent(threshold)));
+        }
+    }
+
+    private static double change(long before, long after) {
+        return before == 0 ? 0 : (double) after / before - 1;
+    }
+
+    private static String percent(double change) {
+        return Double.isNaN(change) ? "n/a" : String.format(Locale.ROOT, "%+.1f%%", change * 100);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f ms", nanos / 1_000_000.0);
+    }
+
+    private static String bytes(long bytes) {
+        return bytes < 0 ? "n/a" : bytes + " B";
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
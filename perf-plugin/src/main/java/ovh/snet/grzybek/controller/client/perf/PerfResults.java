@@ -0,0 +1,122 @@
+package ovh.snet.grzybek.controller.client.perf;
+
+import groovy.json.JsonOutput;
+import groovy.json.JsonSlurper;
+import org.gradle.api.GradleException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reading and writing of results written by the test JVMs and of baseline files.
+ */
+final class PerfResults {
+
+    static final String RESULTS_DIR_PROPERTY = "controller-client.perf.results-dir";
+
+    private PerfResults() {
+    }
+
+    /**
+     * Merges the samples written by all test JVMs into one summary per controller method.
+     *
+     * @return summaries keyed by {@code ControllerClass#method}, empty if there are no results
+     */
+    static Map<String, OperationSummary> load(File resultsDirectory, double percentile) {
+        var files = resultFiles(resultsDirectory);
+        if (files.isEmpty()) {
+            return Map.of();
+        }
+
+        var latencies = new TreeMap<String, LongList>();
+        var allocations = new TreeMap<String, LongList>();
+        for (var file : files) {
+            var operations = (Map<?, ?>) ((Map<?, ?>) new JsonSlurper().parse(file)).get("operations");
+            operations.forEach((operation, samples) -> {
+                var values = (Map<?, ?>) samples;
+                latencies.computeIfAbsent((String) operation, key -> new LongList())
+                        .addAll((List<?>) values.get("latencyNanos"));
+                allocations.computeIfAbsent((String) operation, key -> new LongList())
+                        .addAll((List<?>) values.get("allocatedBytes"));
+            });
+        }
+
+        var summaries = new TreeMap<String, OperationSummary>();
+        latencies.forEach((operation, samples) -> {
+            var allocated = allocations.get(operation).sorted();
+            summaries.put(operation, new OperationSummary(
+                    samples.size,
+                    samples.sorted()[Math.max((int) Math.ceil(percentile * samples.size), 1) - 1],
+                    allocated[0] < 0 ? -1 : allocated[allocated.length / 2]));
+        });
+        return summaries;
+    }
+
+    /**
+     * Lists the files written by the test JVMs into the directories of the test tasks below the
+     * given directory.
+     */
+    static List<File> resultFiles(File resultsDirectory) {
+        var files = new ArrayList<File>();
+        var taskDirectories = resultsDirectory.listFiles(File::isDirectory);
+        if (taskDirectories != null) {
+            for (var taskDirectory : taskDirectories) {
+                var taskFiles = taskDirectory.listFiles((dir, name) -> name.endsWith(".json"));
+                if (taskFiles != null) {
+                    files.addAll(Arrays.asList(taskFiles));
+                }
+            }
+        }
+        return files;
+    }
+
+    static Map<String, OperationSummary> readBaseline(File file) {
+        var operations = (Map<?, ?>) ((Map<?, ?>) new JsonSlurper().parse(file)).get("operations");
+        var baseline = new TreeMap<String, OperationSummary>();
+        operations.forEach((operation, summary) ->
+                baseline.put((String) operation, OperationSummary.fromMap((Map<?, ?>) summary)));
+        return baseline;
+    }
+
+    static void writeBaseline(File file, double percentile, Map<String, OperationSummary> summaries) {
+        var operations = new TreeMap<String, Object>();
+        summaries.forEach((operation, summary) -> operations.put(operation, summary.toMap()));
+        write(file, JsonOutput.prettyPrint(JsonOutput.toJson(Map.of("percentile", percentile, "operations", operations))));
+    }
+
+    static void write(File file, String content) {
+        try {
+            Files.createDirectories(file.toPath().getParent());
+            Files.writeString(file.toPath(), content);
+        } catch (IOException e) {
+            throw new GradleException("Failed to write " + file, e);
+        }
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[64];
+        private int size;
+
+        void addAll(List<?> numbers) {
+            if (size + numbers.size() > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + numbers.size()));
+            }
+            for (var number : numbers) {
+                values[size++] = ((Number) number).longValue();
+            }
+        }
+
+        long[] sorted() {
+            var sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
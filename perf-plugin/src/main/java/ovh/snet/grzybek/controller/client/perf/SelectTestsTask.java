@@ -0,0 +1,62 @@
+package ovh.snet.grzybek.controller.client.perf;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lists the test classes affected by the changed classes, one per line, e.g. to pass them on to
+ * another build step. Test classes missing from the test map are not listed, but may be affected as
+ * well; to run everything except the known unaffected tests, exclude the ones listed in {@link
+ * #getUnaffectedFile()} instead.
+ *
+ * <pre>{@code
+ * ./gradlew controllerClientSelectTests --changed=$(git diff --name-only origin/main | paste -sd, -)
+ * }</pre>
+ */
+public abstract class SelectTestsTask extends DefaultTask {
+
+    @Internal
+    public abstract RegularFileProperty getTestMapFile();
+
+    @Internal
+    public abstract RegularFileProperty getOutputFile();
+
+    @Internal
+    public abstract RegularFileProperty getUnaffectedFile();
+
+    @Internal
+    public abstract ListProperty<String> getChanged();
+
+    @Option(option = "changed", description = "Comma separated changed classes or source files.")
+    public void setChanged(String changed) {
+        getChanged().set(List.of(changed.split(",")));
+    }
+
+    @TaskAction
+    public void select() {
+        var index = getTestMapFile().get().getAsFile();
+        var testMap = TestMap.read(index);
+        if (testMap.isEmpty()) {
+            throw new GradleException("No controller client test map at " + index + ", run the tests first");
+        }
+        var changed = TestMap.classNames(getChanged().get());
+        var selected = testMap.select(changed);
+        var outputFile = getOutputFile().get().getAsFile();
+        PerfResults.write(outputFile, lines(selected));
+        PerfResults.write(getUnaffectedFile().get().getAsFile(), lines(testMap.unaffected(changed)));
+        getLogger().lifecycle("Selected {} test classes, written to {}", selected.size(), outputFile);
+        selected.forEach(test -> getLogger().lifecycle("  {}", test));
+    }
+
+    private static String lines(Set<String> tests) {
+        return tests.isEmpty() ? "" : String.join("\n", tests) + "\n";
+    }
+}
@@ -0,0 +1,195 @@
+package ovh.snet.grzybek.controller.client.perf;
+
+import groovy.json.JsonOutput;
+import groovy.json.JsonSlurper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Which test classes called which controller methods, and which classes every called controller
+ * depends on.
+ *
+ * <p>The index file lists every test once and refers to it by position:
+ *
+ * <pre>{@code
+ * {"tests": ["com.example.MyControllerTest"],
+ *  "operations": {"com.example.MyController#search": [0]},
+ *  "dependencies": {"com.example.MyController": ["com.example.SearchService"]}}
+ * }</pre>
+ */
+final class TestMap {
+
+    static final String RESULTS_DIR_PROPERTY = "controller-client.test-map.results-dir";
+
+    private final Map<String, Set<String>> operationsByTest = new TreeMap<>();
+    private final Map<String, Set<String>> dependencies = new TreeMap<>();
+
+    /**
+     * Reads the index file, or returns an empty map if it does not exist.
+     */
+    static TestMap read(File index) {
+        var testMap = new TestMap();
+        if (!index.exists()) {
+            return testMap;
+        }
+        var content = (Map<?, ?>) new JsonSlurper().parse(index);
+        var tests = (List<?>) content.get("tests");
+        ((Map<?, ?>) content.get("operations")).forEach((operation, indices) -> {
+            for (var position : (List<?>) indices) {
+                testMap.operationsByTest.computeIfAbsent((String) tests.get(((Number) position).intValue()),
+                        test -> new TreeSet<>()).add((String) operation);
+            }
+        });
+        ((Map<?, ?>) content.get("dependencies")).forEach((controller, classes) ->
+                testMap.dependencies.put((String) controller, strings((List<?>) classes)));
+        return testMap;
+    }
+
+    /**
+     * Merges the files written by the test JVMs. Tests and controllers found in the results replace
+     * their previous entries, all others are kept, so runs of a subset of the tests update the map.
+     *
+     * @return the number of tests found in the results
+     */
+    int merge(File resultsDirectory) {
+        var files = PerfResults.resultFiles(resultsDirectory);
+        var tests = new TreeMap<String, Set<String>>();
+        var controllers = new TreeMap<String, Set<String>>();
+        for (var file : files) {
+            var content = (Map<?, ?>) new JsonSlurper().parse(file);
+            ((Map<?, ?>) content.get("tests")).forEach((test, operations) ->
+                    tests.computeIfAbsent((String) test, key -> new TreeSet<>()).addAll(strings((List<?>) operations)));
+            ((Map<?, ?>) content.get("dependencies")).forEach((controller, classes) ->
+                    controllers.computeIfAbsent((String) controller, key -> new TreeSet<>()).addAll(strings((List<?>) classes)));
+        }
+        operationsByTest.putAll(tests);
+        dependencies.putAll(controllers);
+        return tests.size();
+    }
+
+    void write(File index) {
+        var tests = new ArrayList<>(operationsByTest.keySet());
+        var operations = new TreeMap<String, List<Integer>>();
+        for (int i = 0; i < tests.size(); i++) {
+            for (var operation : operationsByTest.get(tests.get(i))) {
+                operations.computeIfAbsent(operation, key -> new ArrayList<>()).add(i);
+            }
+        }
+        var content = new LinkedHashMap<String, Object>();
+        content.put("tests", tests);
+        content.put("operations", operations);
+        content.put("dependencies", dependencies);
+        PerfResults.write(index, JsonOutput.toJson(content));
+    }
+
+    boolean isEmpty() {
+        return operationsByTest.isEmpty();
+    }
+
+    /**
+     * Selects the tests affected by the changed classes: tests calling a changed controller or a
+     * controller depending on a changed class, and changed classes the map knows nothing about,
+     * since they may be tests themselves.
+     *
+     * <p>Tests missing from the map, e.g. unit tests without an application context or tests added
+     * after the map was written, are not part of the selection and have to run as well; use {@link
+     * #unaffected} to skip tests instead.
+     *
+     * @param changed fully qualified names of the changed classes
+     */
+    Set<String> select(Collection<String> changed) {
+        var affectedControllers = affectedControllers(changed);
+        var unknown = new TreeSet<>(changed);
+        dependencies.forEach((controller, classes) -> {
+            unknown.remove(controller);
+            unknown.removeAll(classes);
+        });
+        unknown.removeAll(operationsByTest.keySet());
+
+        var selected = new TreeSet<String>();
+        operationsByTest.forEach((test, operations) -> {
+            if (isAffected(test, operations, changed, affectedControllers)) {
+                selected.add(test);
+            }
+        });
+        selected.addAll(unknown);
+        return selected;
+    }
+
+    /**
+     * The tests of the map not affected by the changed classes, which can be skipped. Tests the map
+     * knows nothing about are never part of it.
+     *
+     * @param changed fully qualified names of the changed classes
+     */
+    Set<String> unaffected(Collection<String> changed) {
+        var affectedControllers = affectedControllers(changed);
+        var unaffected = new TreeSet<String>();
+        operationsByTest.forEach((test, operations) -> {
+            if (!isAffected(test, operations, changed, affectedControllers)) {
+                unaffected.add(test);
+            }
+        });
+        return unaffected;
+    }
+
+    private Set<String> affectedControllers(Collection<String> changed) {
+        var affectedControllers = new TreeSet<String>();
+        dependencies.forEach((controller, classes) -> {
+            if (changed.contains(controller) || classes.stream().anyMatch(changed::contains)) {
+                affectedControllers.add(controller);
+            }
+        });
+        return affectedControllers;
+    }
+
+    private static boolean isAffected(String test, Set<String> operations, Collection<String> changed,
+                                      Set<String> affectedControllers) {
+        if (changed.contains(test)) {
+            return true;
+        }
+        for (var operation : operations) {
+            var controller = operation.substring(0, operation.indexOf('#'));
+            if (affectedControllers.contains(controller) || changed.contains(controller)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Turns changed source files, e.g. {@code src/main/java/com/example/MyController.java}, into
+     * class names. Entries that are not source files are taken as class names.
+     */
+    static Set<String> classNames(Collection<String> changed) {
+        var classes = new TreeSet<String>();
+        for (var entry : changed) {
+            var path = entry.trim().replace('\\', '/');
+            if (path.isEmpty()) {
+                continue;
+            }
+            if (!path.endsWith(".java") && !path.endsWith(".kt")) {
+                classes.add(path);
+                continue;
+            }
+            var sourceRoot = Math.max(path.lastIndexOf("/java/"), path.lastIndexOf("/kotlin/"));
+            var relative = sourceRoot < 0 ? path : path.substring(path.indexOf('/', sourceRoot + 1) + 1);
+            classes.add(relative.substring(0, relative.lastIndexOf('.')).replace('/', '.'));
+        }
+        return classes;
+    }
+
+    private static Set<String> strings(List<?> values) {
+        var strings = new TreeSet<String>();
+        values.forEach(value -> strings.add((String) value));
+        return strings;
+    }
+}
@@ -0,0 +1,32 @@
+package ovh.snet.grzybek.controller.client.perf;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Merges the test map written by the test JVMs into the index file.
+ */
+public abstract class TestMapTask extends DefaultTask {
+
+    @Internal
+    public abstract DirectoryProperty getResultsDirectory();
+
+    @Internal
+    public abstract RegularFileProperty getTestMapFile();
+
+    @TaskAction
+    public void merge() {
+        var index = getTestMapFile().get().getAsFile();
+        var testMap = TestMap.read(index);
+        var tests = testMap.merge(getResultsDirectory().get().getAsFile());
+        if (tests == 0) {
+            getLogger().info("No controller client calls recorded by tests");
+            return;
+        }
+        testMap.write(index);
+        getLogger().info("Updated controller calls of {} test classes in {}", tests, index);
+    }
+}